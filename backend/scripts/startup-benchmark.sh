@@ -0,0 +1,69 @@
+#!/usr/bin/env bash
+# Compares startup time and first-request latency between build variants.
+#
+#   scripts/startup-benchmark.sh jar      target/sharelink-0.0.1-SNAPSHOT.jar
+#   scripts/startup-benchmark.sh aot-cds  /path/to/extracted   (dir with app.jar + app.jsa)
+#   scripts/startup-benchmark.sh native   target/sharelink
+#
+# Startup time is measured from launch until the first successful response from
+# /api/{shortCode}/qr, which does not touch AWS. First-request latency is the
+# time of that first request alone, i.e. how warm the app is when it starts serving.
+set -euo pipefail
+
+variant="${1:?variant: jar | aot-cds | native}"
+target="${2:?path to jar, extracted dir or native binary}"
+runs="${RUNS:-5}"
+port="${PORT:-18080}"
+url="http://localhost:${port}/api/bench1/qr"
+
+export AWS_REGION="${AWS_REGION:-us-east-1}"
+export AWS_S3_BUCKET="${AWS_S3_BUCKET:-benchmark}"
+export COGNITO_JWKS_URL="${COGNITO_JWKS_URL:-https://localhost/jwks.json}"
+export APP_BASE_URL="${APP_BASE_URL:-http://localhost}"
+export APP_CORS_ALLOWED_ORIGINS="${APP_CORS_ALLOWED_ORIGINS:-http://localhost}"
+
+now_ms() { date +%s%3N; }
+
+# Runs in the background subshell and execs the app, so $! is the app itself
+launch() {
+  case "$variant" in
+    jar)     exec java -jar "$target" --server.port="$port" ;;
+    aot-cds) cd "$target"
+             exec java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true \
+               -jar app.jar --server.port="$port" ;;
+    native)  exec "$target" --server.port="$port" ;;
+    *)       echo "unknown variant: $variant" >&2; exit 1 ;;
+  esac
+}
+
+pid=""
+trap '[ -n "$pid" ] && kill "$pid" 2>/dev/null' EXIT
+
+total_startup=0
+total_first=0
+for run in $(seq 1 "$runs"); do
+  start=$(now_ms)
+  launch > /dev/null 2>&1 &
+  pid=$!
+
+  # Wait for the port with a plain TCP connect so no HTTP request warms the app,
+  # then time the first real request
+  until (: < "/dev/tcp/localhost/${port}") 2>/dev/null; do
+    if ! kill -0 "$pid" 2>/dev/null; then echo "app exited during startup" >&2; exit 1; fi
+    sleep 0.01
+  done
+  request_start=$(now_ms)
+  curl -sf -o /dev/null "$url"
+  end=$(now_ms)
+
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+  pid=""
+
+  startup=$((end - start))
+  first=$((end - request_start))
+  total_startup=$((total_startup + startup))
+  total_first=$((total_first + first))
+  echo "run ${run}: startup ${startup} ms, first request ${first} ms"
+done
+
+echo "${variant}: avg startup $((total_startup / runs)) ms, avg first request $((total_first / runs)) ms"
@@ -0,0 +1,58 @@
+package com.sharelink.config;
+
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.sharelink.service.InvalidationBus;
+import com.sharelink.service.LocalInvalidationBus;
+import com.sharelink.service.UdpInvalidationBus;
+
+@Configuration
+public class InvalidationConfig {
+
+    // "local" for a single node, "udp" to fan invalidations out to app.invalidation.peers
+    @Value("${app.invalidation.transport:local}")
+    private String transport;
+
+    // Interface to listen on; only datagrams from the configured peers are accepted
+    @Value("${app.invalidation.bindAddress:0.0.0.0}")
+    private String bindAddress;
+
+    @Value("${app.invalidation.port:7071}")
+    private int port;
+
+    // Comma-separated host:port list of the other replicas
+    @Value("${app.invalidation.peers:}")
+    private String peers;
+
+    @Value("${app.invalidation.batchMillis:50}")
+    private long batchMillis;
+
+    @Bean(destroyMethod = "close")
+    public InvalidationBus invalidationBus() throws SocketException {
+        if ("udp".equalsIgnoreCase(transport)) {
+            return new UdpInvalidationBus(new InetSocketAddress(bindAddress, port), parsePeers(peers), batchMillis);
+        }
+        return new LocalInvalidationBus();
+    }
+
+    private static List<InetSocketAddress> parsePeers(String value) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String peer : value.split(",")) {
+            peer = peer.trim();
+            if (peer.isEmpty()) continue;
+            int colon = peer.lastIndexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Invalid invalidation peer (expected host:port): " + peer);
+            }
+            addresses.add(new InetSocketAddress(peer.substring(0, colon), Integer.parseInt(peer.substring(colon + 1))));
+        }
+        return addresses;
+    }
+}
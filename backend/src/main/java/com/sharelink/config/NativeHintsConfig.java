@@ -0,0 +1,87 @@
+package com.sharelink.config;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Reachability metadata for the AOT / native-image build (see the fast-startup
+ * profile in pom.xml). Only consulted at build time; has no effect on the
+ * regular jar.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.Hints.class)
+public class NativeHintsConfig {
+
+    // AWS SDK clients instantiate these by class name from classpath resource files
+    private static final String[] AWS_CLASS_LISTS = {
+        "software/amazon/awssdk/global/handlers/execution.interceptors",
+        "software/amazon/awssdk/services/s3/execution.interceptors",
+        "software/amazon/awssdk/services/dynamodb/execution.interceptors",
+        "META-INF/services/software.amazon.awssdk.http.SdkHttpService",
+    };
+
+    static class Hints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            if (classLoader == null) classLoader = NativeHintsConfig.class.getClassLoader();
+            for (String resource : AWS_CLASS_LISTS) {
+                hints.resources().registerPattern(resource);
+                for (String className : readClassList(resource, classLoader)) {
+                    hints.reflection().registerType(TypeReference.of(className),
+                            MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+                }
+            }
+            hints.resources().registerPattern("software/amazon/awssdk/services/*/codegen-resources/*");
+            hints.resources().registerPattern("software/amazon/awssdk/global/partitions.json");
+
+            // nimbus-jose parses JWKS JSON with its shaded Gson, which reflects on these
+            hints.reflection().registerType(TypeReference.of("com.nimbusds.jose.shaded.gson.internal.LinkedTreeMap"),
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+            // PDFBox loads its glyph lists, CMaps and fallback fonts as classpath resources
+            hints.resources().registerPattern("org/apache/pdfbox/resources/*");
+
+            // ZXing and thumbnails go through ImageIO's built-in PNG writer
+            hints.reflection().registerType(TypeReference.of("com.sun.imageio.plugins.png.PNGImageWriterSpi"),
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            hints.reflection().registerType(TypeReference.of("com.sun.imageio.plugins.png.PNGImageReaderSpi"),
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+
+        private static List<String> readClassList(String resource, ClassLoader classLoader) {
+            List<String> classNames = new ArrayList<>();
+            try {
+                Enumeration<URL> urls = classLoader.getResources(resource);
+                while (urls.hasMoreElements()) {
+                    try (BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(urls.nextElement().openStream(), StandardCharsets.UTF_8))) {
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            line = line.trim();
+                            if (!line.isEmpty() && !line.startsWith("#")) {
+                                classNames.add(line);
+                            }
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Could not read " + resource + ": " + e.getMessage());
+            }
+            return classNames;
+        }
+    }
+}
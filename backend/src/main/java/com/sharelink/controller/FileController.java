@@ -1,13 +1,26 @@
 package com.sharelink.controller;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -20,29 +33,49 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.sharelink.model.ShareLink;
+import com.sharelink.service.DownloadAnalyticsService;
+import com.sharelink.service.HotObjectCache;
+import com.sharelink.service.LinkCleanupService;
 import com.sharelink.service.LinkService;
+import com.sharelink.service.PreviewService;
 import com.sharelink.service.S3Service;
 import com.sharelink.util.JWTUtil;
 import com.sharelink.util.QRCodeUtil;
 import com.sharelink.util.URLGenerator;
 
 import jakarta.servlet.http.HttpServletRequest;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 
 @RestController
 @RequestMapping("/api")
 public class FileController {
 
+    private static final int MAX_BULK_DELETE = LinkService.MAX_READ_BATCH;
+    private static final Duration PREVIEW_MAX_AGE = Duration.ofDays(7);
+
     private final S3Service s3Service;
     private final LinkService linkService;
+    private final HotObjectCache hotObjectCache;
+    private final LinkCleanupService linkCleanupService;
+    private final DownloadAnalyticsService downloadAnalytics;
+    private final PreviewService previewService;
 
     @Value("${app.baseUrl}")
     private String baseUrl;
 
-    public FileController(S3Service s3Service, LinkService linkService) {
+    public FileController(S3Service s3Service, LinkService linkService, HotObjectCache hotObjectCache,
+                          LinkCleanupService linkCleanupService, DownloadAnalyticsService downloadAnalytics,
+                          PreviewService previewService) {
         this.s3Service = s3Service;
         this.linkService = linkService;
+        this.hotObjectCache = hotObjectCache;
+        this.linkCleanupService = linkCleanupService;
+        this.downloadAnalytics = downloadAnalytics;
+        this.previewService = previewService;
     }
 
     @PostMapping("/upload")
@@ -131,6 +164,11 @@ public class FileController {
             System.out.println("Link being saved: " + link);
             linkService.saveLink(link);
 
+            // Previews would reveal protected content, so only open single-file links get one
+            if (files.length == 1 && link.getPassword() == null) {
+                previewService.submit(shortCode, s3Keys.get(0), files[0].getContentType(), totalSize);
+            }
+
             Map<String, String> response = new HashMap<>();
             response.put("shortLink", baseUrl + "/" + shortCode);
             return ResponseEntity.ok(response);
@@ -163,6 +201,12 @@ public class FileController {
         info.put("expiresInHours", hoursLeft);
         info.put("expired", now > link.getExpiresAt()); // Add this
         info.put("passwordProtected", link.getPassword() != null);
+        if (link.getPreviewKey() != null && link.getPassword() == null) {
+            info.put("previewUrl", "/api/" + shortCode + "/preview");
+        }
+        // Small single files go through the backend so the hot-object cache can serve them
+        info.put("proxiedDownload", link.getS3Keys().size() == 1
+                && link.getTotalSize() != null && hotObjectCache.isCacheable(link.getTotalSize()));
 
         return ResponseEntity.ok(info);
     }
@@ -219,23 +263,171 @@ public class FileController {
                     .body(Map.of("error", "You do not have permission to delete this link."));
         }
 
-        // Delete files from S3
-        for (String key : link.getS3Keys()) {
-            s3Service.deleteFile(key);
+        // Delete files from S3, then metadata from DynamoDB
+        Map<String, String> results = linkCleanupService.deleteLinks(List.of(link));
+        if (!LinkCleanupService.DELETED.equals(results.get(shortCode))) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to delete link. Please try again."));
         }
 
-        // Delete metadata from DynamoDB
-        linkService.deleteLink(shortCode);
-
         return ResponseEntity.ok(Map.of("message", "Link and associated files deleted successfully."));
     }
 
+    @PostMapping("/links/delete")
+    public ResponseEntity<?> deleteLinks(@RequestBody Map<String, List<String>> body, HttpServletRequest request) {
+        String username = (String) request.getAttribute("username");
+
+        if (username == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "You must be logged in to delete links."));
+        }
+
+        List<String> requested = body != null ? body.get("shortCodes") : null;
+        if (requested == null || requested.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "No links given."));
+        }
+        Set<String> shortCodes = new LinkedHashSet<>(requested);
+        if (shortCodes.size() > MAX_BULK_DELETE) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "At most " + MAX_BULK_DELETE + " links per request."));
+        }
+
+        Map<String, ShareLink> links = linkService.getLinks(shortCodes);
+        Map<String, String> results = new LinkedHashMap<>();
+        List<ShareLink> owned = new ArrayList<>();
+        for (String shortCode : shortCodes) {
+            ShareLink link = links.get(shortCode);
+            if (link == null) {
+                results.put(shortCode, LinkCleanupService.NOT_FOUND);
+            } else if (!username.equals(link.getUsername())) {
+                results.put(shortCode, LinkCleanupService.FORBIDDEN);
+            } else {
+                results.put(shortCode, LinkCleanupService.DELETED);
+                owned.add(link);
+            }
+        }
+        results.putAll(linkCleanupService.deleteLinks(owned));
+
+        return ResponseEntity.ok(Map.of("results", results));
+    }
+
+    @DeleteMapping("/my-uploads")
+    public ResponseEntity<?> deleteMyUploads(HttpServletRequest request) {
+        String username = (String) request.getAttribute("username");
+
+        if (username == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "You must be logged in to delete links."));
+        }
+
+        Map<String, String> results = linkCleanupService.deleteLinks(linkService.getLinksByUsername(username));
+
+        return ResponseEntity.ok(Map.of("results", results));
+    }
+
     @PostMapping("/{shortCode}/download")
     public ResponseEntity<?> downloadWithPassword(@PathVariable String shortCode,
-                                                  @RequestBody(required = false) Map<String, String> body) {
+                                                  @RequestBody(required = false) Map<String, String> body,
+                                                  HttpServletRequest request) {
         String password = body != null ? body.get("password") : null;
 
         ShareLink link = linkService.getLink(shortCode);
+        ResponseEntity<?> denied = checkDownloadAccess(link, password);
+        if (denied != null) return denied;
+
+        if (link.getS3Keys().size() == 1) {
+            String url = s3Service.generatePresignedUrl(link.getS3Keys().get(0));
+            downloadAnalytics.recordDownload(shortCode, request);
+            return ResponseEntity.ok(Map.of("downloadUrl", url));
+        } else {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Multi-file download not yet supported in this endpoint"));
+        }
+    }
+
+    // Streams the file through the backend instead of redirecting to S3, so small
+    // popular objects can be served from the hot-object cache.
+    @PostMapping("/{shortCode}/file")
+    public ResponseEntity<?> downloadProxied(@PathVariable String shortCode,
+                                             @RequestBody(required = false) Map<String, String> body,
+                                             HttpServletRequest request) {
+        String password = body != null ? body.get("password") : null;
+
+        ShareLink link = linkService.getLink(shortCode);
+        ResponseEntity<?> denied = checkDownloadAccess(link, password);
+        if (denied != null) return denied;
+
+        if (link.getS3Keys().size() != 1) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Multi-file download not yet supported in this endpoint"));
+        }
+
+        String key = link.getS3Keys().get(0);
+        String filename = link.getOriginalFilenames().get(0);
+        downloadAnalytics.recordDownload(shortCode, request);
+
+        return serveObject(key, ContentDisposition.attachment().filename(filename, StandardCharsets.UTF_8).build(),
+                link.getExpiresAt(), null);
+    }
+
+    @GetMapping("/{shortCode}/preview")
+    public ResponseEntity<?> getPreview(@PathVariable String shortCode) {
+        ShareLink link = linkService.getLink(shortCode);
+        if (link == null || link.getPreviewKey() == null || link.getPassword() != null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Preview not found"));
+        }
+        if (link.getExpiresAt() != null && System.currentTimeMillis() > link.getExpiresAt()) {
+            return ResponseEntity.status(HttpStatus.GONE).body(Map.of("error", "Link expired"));
+        }
+
+        // The thumbnail never changes, so browsers may keep it for as long as the link lives
+        long maxAgeMillis = link.getExpiresAt() != null
+                ? Math.max(0, link.getExpiresAt() - System.currentTimeMillis())
+                : PREVIEW_MAX_AGE.toMillis();
+        CacheControl cacheControl = CacheControl
+                .maxAge(Duration.ofMillis(Math.min(maxAgeMillis, PREVIEW_MAX_AGE.toMillis())))
+                .cachePublic()
+                .immutable();
+
+        return serveObject(link.getPreviewKey(), ContentDisposition.inline().build(), link.getExpiresAt(), cacheControl);
+    }
+
+    // Serves an S3 object through the backend, from the hot-object cache when possible
+    private ResponseEntity<?> serveObject(String key, ContentDisposition disposition, Long expiresAt,
+                                          CacheControl cacheControl) {
+        HotObjectCache.CachedObject cached = hotObjectCache.get(key);
+        if (cached != null) {
+            return fileResponse(disposition, cached.getContentType(), cached.size(), cacheControl)
+                    .body((StreamingResponseBody) out -> writeBuffer(cached.data(), out));
+        }
+
+        ResponseInputStream<GetObjectResponse> object = s3Service.getObjectStream(key);
+        String contentType = object.response().contentType();
+        Long contentLength = object.response().contentLength();
+        long size = contentLength != null ? contentLength : -1;
+
+        if (!hotObjectCache.shouldAdmit(key, size)) {
+            return fileResponse(disposition, contentType, size, cacheControl)
+                    .body((StreamingResponseBody) out -> {
+                        try (object) {
+                            object.transferTo(out);
+                        }
+                    });
+        }
+
+        byte[] bytes;
+        try (object) {
+            bytes = object.readAllBytes();
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Download failed: " + e.getMessage()));
+        }
+        hotObjectCache.put(key, bytes, contentType, expiresAt);
+        return fileResponse(disposition, contentType, bytes.length, cacheControl).body(bytes);
+    }
+
+    private ResponseEntity<?> checkDownloadAccess(ShareLink link, String password) {
         if (link == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Link not found"));
         }
@@ -251,17 +443,58 @@ public class FileController {
                         .body(Map.of("error", "Incorrect or missing password"));
             }
         }
+        return null;
+    }
 
-        if (link.getS3Keys().size() == 1) {
-            String url = s3Service.generatePresignedUrl(link.getS3Keys().get(0));
-            linkService.incrementDownloadCount(shortCode);
-            return ResponseEntity.ok(Map.of("downloadUrl", url));
-        } else {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(Map.of("error", "Multi-file download not yet supported in this endpoint"));
+    private static ResponseEntity.BodyBuilder fileResponse(ContentDisposition disposition, String contentType, long size,
+                                                           CacheControl cacheControl) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .header(HttpHeaders.CONTENT_TYPE, contentType != null ? contentType : "application/octet-stream");
+        if (size >= 0) {
+            builder.contentLength(size);
+        }
+        if (cacheControl != null) {
+            builder.cacheControl(cacheControl);
+        }
+        return builder;
+    }
+
+    private static void writeBuffer(ByteBuffer buffer, OutputStream out) throws IOException {
+        WritableByteChannel channel = Channels.newChannel(out);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
         }
     }
 
+    @GetMapping("/{shortCode}/stats")
+    public ResponseEntity<?> getLinkStats(@PathVariable String shortCode, HttpServletRequest request) {
+        String username = (String) request.getAttribute("username");
+
+        if (username == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "You must be logged in to view stats."));
+        }
+
+        ShareLink link = linkService.getLink(shortCode);
+
+        if (link == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Link not found."));
+        }
+
+        if (!username.equals(link.getUsername())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("error", "You do not have permission to view stats for this link."));
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("shortCode", shortCode);
+        stats.put("downloadCount", link.getDownloadCount());
+        stats.put("days", downloadAnalytics.getDailyStats(shortCode));
+        return ResponseEntity.ok(stats);
+    }
+
     @GetMapping("/{shortCode}/qr")
     public ResponseEntity<byte[]> getQRCode(@PathVariable String shortCode) {
         try {
@@ -3,6 +3,7 @@ package com.sharelink.filter;
 import java.io.IOException;
 import java.util.Map;
 
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -14,6 +15,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 @Component
+@Order(2)
 public class AuthFilter extends OncePerRequestFilter {
 
     @Override
@@ -0,0 +1,62 @@
+package com.sharelink.filter;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-memory buckets for a single node. Also serves as the stand-in for a shared store in tests.
+public class LocalRateLimitStore implements RateLimitStore {
+
+    private final int maxKeys;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    public LocalRateLimitStore(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public long tryAcquire(String key, RateLimit limit, long nowMicros) {
+        AtomicLong arrival = buckets.get(key);
+        if (arrival == null) {
+            if (buckets.size() >= maxKeys) evict(nowMicros);
+            arrival = buckets.computeIfAbsent(key, k -> new AtomicLong());
+        }
+
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, nowMicros) + limit.getEmissionIntervalMicros();
+            long ahead = next - nowMicros;
+            if (ahead > limit.getBurstMicros()) {
+                return ahead - limit.getBurstMicros();
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    // Drops buckets that have refilled completely (they behave exactly like a new bucket),
+    // then arbitrary ones if a flood of distinct keys still leaves the map full
+    private void evict(long nowMicros) {
+        if (!sweeping.compareAndSet(false, true)) return;
+        try {
+            buckets.entrySet().removeIf(entry -> entry.getValue().get() <= nowMicros);
+
+            Iterator<Map.Entry<String, AtomicLong>> it = buckets.entrySet().iterator();
+            int excess = buckets.size() - maxKeys * 9 / 10;
+            while (excess-- > 0 && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+}
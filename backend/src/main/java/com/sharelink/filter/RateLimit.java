@@ -0,0 +1,20 @@
+package com.sharelink.filter;
+
+// Token bucket settings: up to `capacity` requests in a burst, refilled at `perMinute`
+public class RateLimit {
+    private final int capacity;
+    private final long emissionIntervalMicros;
+
+    public RateLimit(int capacity, int perMinute) {
+        this.capacity = Math.max(1, capacity);
+        this.emissionIntervalMicros = 60_000_000L / Math.max(1, perMinute);
+    }
+
+    public int getCapacity() { return capacity; }
+
+    // Time for one token to refill
+    public long getEmissionIntervalMicros() { return emissionIntervalMicros; }
+
+    // How far ahead of now the bucket's schedule may run before requests are rejected
+    public long getBurstMicros() { return emissionIntervalMicros * capacity; }
+}
@@ -0,0 +1,49 @@
+package com.sharelink.filter;
+
+import java.io.IOException;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Charges the client IP and short code buckets. Runs before {@link AuthFilter},
+ * so requests with forged tokens are limited before any JWT verification.
+ */
+@Component
+@Order(1)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter limiter;
+
+    public RateLimitFilter(RateLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !limiter.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+        throws ServletException, IOException {
+        RateLimiter.Target target = limiter.match(request);
+        if (target != null) {
+            long waitMicros = limiter.acquireClient(target, request);
+            if (waitMicros > 0) {
+                limiter.reject(response, waitMicros);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
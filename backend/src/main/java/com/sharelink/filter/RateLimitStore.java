@@ -0,0 +1,18 @@
+package com.sharelink.filter;
+
+/**
+ * Storage for token buckets, so limits can be kept per node or shared between nodes.
+ *
+ * Buckets are kept in GCRA form: a single "theoretical arrival time" per key,
+ * which a shared store can update with one conditional write.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Takes one token from the bucket for {@code key}.
+     *
+     * @param nowMicros wall-clock time in microseconds, so nodes agree on it
+     * @return 0 if the request is allowed, otherwise microseconds until a token is available
+     */
+    long tryAcquire(String key, RateLimit limit, long nowMicros);
+}
@@ -0,0 +1,157 @@
+package com.sharelink.filter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.RequestPath;
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Token-bucket limits for the upload, download, QR and preview endpoints, shared by
+ * {@link RateLimitFilter} (client IP and short code, before authentication) and
+ * {@link UserRateLimitFilter} (logged-in user, after authentication).
+ *
+ * Buckets live in the {@link RateLimitStore} bean if one is defined, otherwise
+ * in a per-node {@link LocalRateLimitStore}.
+ */
+@Component
+public class RateLimiter {
+
+    static final String UPLOAD = "upload";
+    static final String DOWNLOAD = "download";
+    static final String QR = "qr";
+    static final String PREVIEW = "preview";
+
+    // The endpoint a request is limited under, and its short code if any
+    static final class Target {
+        final String endpoint;
+        final String shortCode;
+
+        Target(String endpoint, String shortCode) {
+            this.endpoint = endpoint;
+            this.shortCode = shortCode;
+        }
+    }
+
+    private final RateLimitStore store;
+    private final boolean enabled;
+    private final int trustedProxies;
+    private final Map<String, RateLimit> clientLimits;
+    private final Map<String, RateLimit> linkLimits;
+
+    @Autowired
+    public RateLimiter(ObjectProvider<RateLimitStore> stores, Environment env) {
+        this(stores.getIfAvailable(() ->
+                new LocalRateLimitStore(env.getProperty("app.ratelimit.maxKeys", Integer.class, 100_000))), env);
+    }
+
+    RateLimiter(RateLimitStore store, Environment env) {
+        this.store = store;
+        this.enabled = env.getProperty("app.ratelimit.enabled", Boolean.class, true);
+        this.trustedProxies = env.getProperty("app.ratelimit.trustedProxies", Integer.class, 0);
+        this.clientLimits = Map.of(
+            UPLOAD, limit(env, UPLOAD, "client", 10, 10),
+            DOWNLOAD, limit(env, DOWNLOAD, "client", 60, 60),
+            QR, limit(env, QR, "client", 60, 60),
+            PREVIEW, limit(env, PREVIEW, "client", 60, 60));
+        this.linkLimits = Map.of(
+            DOWNLOAD, limit(env, DOWNLOAD, "link", 600, 600),
+            QR, limit(env, QR, "link", 300, 300),
+            PREVIEW, limit(env, PREVIEW, "link", 300, 300));
+    }
+
+    private static RateLimit limit(Environment env, String endpoint, String scope, int capacity, int perMinute) {
+        String prefix = "app.ratelimit." + endpoint + "." + scope + ".";
+        return new RateLimit(
+            env.getProperty(prefix + "capacity", Integer.class, capacity),
+            env.getProperty(prefix + "perMinute", Integer.class, perMinute));
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    // /api/upload, /api/{shortCode}/download, /api/{shortCode}/file, /api/{shortCode}/qr, /api/{shortCode}/preview
+    Target match(HttpServletRequest request) {
+        if ("OPTIONS".equals(request.getMethod())) return null;
+
+        List<String> path = pathSegments(request);
+        if (path.size() == 2 && path.get(0).equals("api") && path.get(1).equals(UPLOAD) && "POST".equals(request.getMethod())) {
+            return new Target(UPLOAD, null);
+        }
+        if (path.size() == 3 && path.get(0).equals("api")) {
+            String endpoint = path.get(2);
+            if (endpoint.equals(DOWNLOAD) || endpoint.equals("file")) {
+                return new Target(DOWNLOAD, path.get(1));
+            } else if (endpoint.equals(QR)) {
+                return new Target(QR, path.get(1));
+            } else if (endpoint.equals(PREVIEW)) {
+                return new Target(PREVIEW, path.get(1));
+            }
+        }
+        return null;
+    }
+
+    // Segments as the controllers' path patterns see them: decoded, with ;params removed
+    private static List<String> pathSegments(HttpServletRequest request) {
+        List<String> segments = new ArrayList<>();
+        RequestPath path = RequestPath.parse(request.getRequestURI(), request.getContextPath());
+        for (PathContainer.Element element : path.pathWithinApplication().elements()) {
+            if (element instanceof PathContainer.PathSegment segment) {
+                segments.add(segment.valueToMatch());
+            }
+        }
+        return segments;
+    }
+
+    // Returns 0 if allowed, otherwise microseconds until a token is available
+    long acquireClient(Target target, HttpServletRequest request) {
+        long now = System.currentTimeMillis() * 1000L;
+        long waitMicros = store.tryAcquire(target.endpoint + ":ip:" + clientIp(request),
+                clientLimits.get(target.endpoint), now);
+
+        RateLimit linkLimit = linkLimits.get(target.endpoint);
+        if (waitMicros == 0 && linkLimit != null) {
+            waitMicros = store.tryAcquire(target.endpoint + ":link:" + target.shortCode, linkLimit, now);
+        }
+        return waitMicros;
+    }
+
+    long acquireUser(Target target, String username) {
+        long now = System.currentTimeMillis() * 1000L;
+        return store.tryAcquire(target.endpoint + ":user:" + username, clientLimits.get(target.endpoint), now);
+    }
+
+    void reject(HttpServletResponse response, long waitMicros) throws IOException {
+        response.setStatus(429);
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds(waitMicros)));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"Too many requests. Try again later.\"}");
+    }
+
+    static long retryAfterSeconds(long waitMicros) {
+        return Math.max(1, (waitMicros + 999_999) / 1_000_000);
+    }
+
+    // Each trusted proxy appends the address it received the request from, so the
+    // client is that many hops from the right; anything further left is client-written
+    String clientIp(HttpServletRequest request) {
+        if (trustedProxies > 0) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                String[] hops = forwarded.split(",");
+                return hops[Math.max(0, hops.length - trustedProxies)].trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,49 @@
+package com.sharelink.filter;
+
+import java.io.IOException;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Charges the logged-in user's bucket. Runs after {@link AuthFilter} so the
+ * username is known.
+ */
+@Component
+@Order(3)
+public class UserRateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter limiter;
+
+    public UserRateLimitFilter(RateLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !limiter.isEnabled() || request.getAttribute("username") == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+        throws ServletException, IOException {
+        RateLimiter.Target target = limiter.match(request);
+        if (target != null) {
+            long waitMicros = limiter.acquireUser(target, (String) request.getAttribute("username"));
+            if (waitMicros > 0) {
+                limiter.reject(response, waitMicros);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,25 @@
+package com.sharelink.model;
+
+public class DownloadEvent {
+    private final String shortCode;
+    private final long timestamp;
+    private final String referrer;
+    private final String country;
+
+    public DownloadEvent(String shortCode, long timestamp, String referrer, String country) {
+        this.shortCode = shortCode;
+        this.timestamp = timestamp;
+        this.referrer = referrer;
+        this.country = country;
+    }
+
+    public String getShortCode() { return shortCode; }
+
+    public long getTimestamp() { return timestamp; }
+
+    // Host of the Referer header, or null for direct downloads
+    public String getReferrer() { return referrer; }
+
+    // ISO country code from the CDN / load balancer, or null if unknown
+    public String getCountry() { return country; }
+}
@@ -13,6 +13,7 @@ public class ShareLink {
     private Long createdAt;
     private Long totalSize;
     private Long downloadCount;
+    private String previewKey;
 
     // Getters and Setters
     public String getShortCode() { return shortCode; }
@@ -45,4 +46,7 @@ public class ShareLink {
 
     public String getUsername() { return username; }
     public void setUsername(String username) { this.username = username; }
+
+    public String getPreviewKey() { return previewKey; }
+    public void setPreviewKey(String previewKey) { this.previewKey = previewKey; }
 }
@@ -0,0 +1,396 @@
+package com.sharelink.service;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sharelink.model.DownloadEvent;
+import com.sharelink.util.EventRingBuffer;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+/**
+ * Download analytics off the request path.
+ *
+ * Downloads only enqueue a {@link DownloadEvent}. A single background thread
+ * drains the queue into per-link, per-day counters and periodically flushes
+ * them: one UpdateItem per (link, day) into the stats table, plus one atomic
+ * increment of the link's downloadCount.
+ *
+ * Referrer hosts are client-controlled, so the day item admits at most
+ * {@code MAX_STORED_REFERRERS} distinct hosts, tracked by a conditional counter;
+ * later hosts are counted as "other". Countries are two-letter codes, so those
+ * attributes stay bounded too. Items carry an {@code expiresAt} epoch-seconds
+ * attribute for DynamoDB TTL and are deleted along with their link.
+ */
+@Service
+public class DownloadAnalyticsService {
+
+    private static final String DOWNLOADS = "downloads";
+    private static final String REFERRER_PREFIX = "ref:";
+    private static final String REFERRER_HOSTS = "referrerHosts";
+    private static final String EXPIRES_AT = "expiresAt";
+    private static final String COUNTRY_PREFIX = "country:";
+    private static final String DIRECT = "direct";
+    private static final String UNKNOWN = "unknown";
+    private static final String OTHER = "other";
+    private static final int MAX_REFERRERS_PER_FLUSH = 50;  // distinct hosts counted in memory per bucket
+    private static final int MAX_REFERRERS_WRITTEN = 10;    // top hosts written per bucket per flush, rest go to "other"
+    private static final int MAX_STORED_REFERRERS = 50;     // distinct hosts per stats item
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+    private static final int MAX_HOST_LENGTH = 253;
+    private static final String[] COUNTRY_HEADERS = {
+        "CloudFront-Viewer-Country", "CF-IPCountry", "X-Country-Code"
+    };
+
+    // Counters for one link on one UTC day
+    private static final class Bucket {
+        final String shortCode;
+        final String day;
+        long downloads;
+        final Map<String, Long> referrers = new HashMap<>();
+        final Map<String, Long> countries = new HashMap<>();
+
+        Bucket(String shortCode, String day) {
+            this.shortCode = shortCode;
+            this.day = day;
+        }
+    }
+
+    private final DynamoDbClient dynamoDbClient;
+    private final LinkService linkService;
+    private final String statsTableName;
+    private final long flushIntervalMillis;
+    private final int maxPendingBuckets;
+    private final int retentionDays;
+
+    private final EventRingBuffer<DownloadEvent> events;
+    private final AtomicLong dropped = new AtomicLong();
+    private final ScheduledExecutorService worker;
+
+    // Only touched by the worker thread
+    private final Map<String, Bucket> pending = new HashMap<>();
+    private long lastFlush = System.currentTimeMillis();
+
+    public DownloadAnalyticsService(DynamoDbClient dynamoDbClient, LinkService linkService,
+                                    @Value("${app.analytics.statsTableName:ShareLinkStats}") String statsTableName,
+                                    @Value("${app.analytics.bufferSize:8192}") int bufferSize,
+                                    @Value("${app.analytics.drainIntervalMillis:200}") long drainIntervalMillis,
+                                    @Value("${app.analytics.flushIntervalMillis:10000}") long flushIntervalMillis,
+                                    @Value("${app.analytics.maxPendingBuckets:5000}") int maxPendingBuckets,
+                                    @Value("${app.analytics.retentionDays:30}") int retentionDays) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.linkService = linkService;
+        this.statsTableName = statsTableName;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxPendingBuckets = maxPendingBuckets;
+        this.retentionDays = retentionDays;
+        this.events = new EventRingBuffer<>(bufferSize);
+
+        this.worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "download-analytics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        worker.scheduleWithFixedDelay(this::drainAndMaybeFlush,
+                drainIntervalMillis, drainIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void recordDownload(String shortCode, HttpServletRequest request) {
+        DownloadEvent event = new DownloadEvent(shortCode, System.currentTimeMillis(),
+                referrerHost(request.getHeader("Referer")), country(request));
+        if (!events.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long getDroppedEvents() {
+        return dropped.get();
+    }
+
+    // Per-day counters for a link, oldest day first
+    public List<Map<String, Object>> getDailyStats(String shortCode) {
+        QueryRequest request = QueryRequest.builder()
+                .tableName(statsTableName)
+                .keyConditionExpression("shortCode = :shortCode")
+                .expressionAttributeValues(Map.of(":shortCode", AttributeValue.fromS(shortCode)))
+                .build();
+
+        List<Map<String, Object>> days = new ArrayList<>();
+        for (Map<String, AttributeValue> item : dynamoDbClient.queryPaginator(request).items()) {
+            Map<String, Long> referrers = new TreeMap<>();
+            Map<String, Long> countries = new TreeMap<>();
+            long downloads = 0;
+            for (Map.Entry<String, AttributeValue> attr : item.entrySet()) {
+                String name = attr.getKey();
+                if (name.equals(DOWNLOADS)) {
+                    downloads = Long.parseLong(attr.getValue().n());
+                } else if (name.startsWith(REFERRER_PREFIX)) {
+                    referrers.put(name.substring(REFERRER_PREFIX.length()), Long.parseLong(attr.getValue().n()));
+                } else if (name.startsWith(COUNTRY_PREFIX)) {
+                    countries.put(name.substring(COUNTRY_PREFIX.length()), Long.parseLong(attr.getValue().n()));
+                }
+            }
+
+            Map<String, Object> day = new HashMap<>();
+            day.put("day", item.get("day").s());
+            day.put("downloads", downloads);
+            day.put("referrers", referrers);
+            day.put("countries", countries);
+            days.add(day);
+        }
+        return days;
+    }
+
+    // Removes all stats items of the given links; best effort, TTL catches the rest
+    public void deleteStats(Collection<String> shortCodes) {
+        List<WriteRequest> deletes = new ArrayList<>();
+        for (String shortCode : shortCodes) {
+            QueryRequest request = QueryRequest.builder()
+                    .tableName(statsTableName)
+                    .keyConditionExpression("shortCode = :shortCode")
+                    .expressionAttributeValues(Map.of(":shortCode", AttributeValue.fromS(shortCode)))
+                    .projectionExpression("shortCode, #day")
+                    .expressionAttributeNames(Map.of("#day", "day"))
+                    .build();
+            for (Map<String, AttributeValue> key : dynamoDbClient.queryPaginator(request).items()) {
+                deletes.add(WriteRequest.builder()
+                        .deleteRequest(DeleteRequest.builder().key(key).build())
+                        .build());
+            }
+        }
+
+        for (int i = 0; i < deletes.size(); i += LinkService.MAX_WRITE_BATCH) {
+            List<WriteRequest> pending = deletes.subList(i, Math.min(i + LinkService.MAX_WRITE_BATCH, deletes.size()));
+            for (int attempt = 1; !pending.isEmpty() && attempt <= MAX_BATCH_ATTEMPTS; attempt++) {
+                BatchWriteItemResponse response = dynamoDbClient.batchWriteItem(BatchWriteItemRequest.builder()
+                        .requestItems(Map.of(statsTableName, pending))
+                        .build());
+                pending = response.unprocessedItems().getOrDefault(statsTableName, List.of());
+            }
+            if (!pending.isEmpty()) {
+                System.out.println("Could not delete " + pending.size() + " stats items; leaving them to TTL");
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        worker.shutdown();
+        if (!worker.awaitTermination(5, TimeUnit.SECONDS)) {
+            // The worker still owns the buffer and pending counters; leave them to it
+            System.out.println("Download analytics worker did not stop; skipping final flush");
+            return;
+        }
+        while (events.drain(this::aggregate, Integer.MAX_VALUE) > 0) {
+            // keep draining until empty
+        }
+        flush();
+    }
+
+    private void drainAndMaybeFlush() {
+        try {
+            events.drain(this::aggregate, events.capacity());
+            long now = System.currentTimeMillis();
+            if (!pending.isEmpty() && (now - lastFlush >= flushIntervalMillis || pending.size() >= maxPendingBuckets)) {
+                flush();
+            }
+        } catch (RuntimeException e) {
+            // Never let the scheduled task die
+            System.out.println("Download analytics flush failed: " + e.getMessage());
+        }
+    }
+
+    private void aggregate(DownloadEvent event) {
+        String day = LocalDate.ofEpochDay(Math.floorDiv(event.getTimestamp(), 86_400_000L)).toString();
+        Bucket bucket = pending.computeIfAbsent(event.getShortCode() + "|" + day,
+                key -> new Bucket(event.getShortCode(), day));
+        bucket.downloads++;
+        String referrer = event.getReferrer() != null ? event.getReferrer() : DIRECT;
+        if (bucket.referrers.size() >= MAX_REFERRERS_PER_FLUSH && !bucket.referrers.containsKey(referrer)) {
+            referrer = OTHER;
+        }
+        bucket.referrers.merge(referrer, 1L, Long::sum);
+        bucket.countries.merge(event.getCountry() != null ? event.getCountry() : UNKNOWN, 1L, Long::sum);
+    }
+
+    private void flush() {
+        lastFlush = System.currentTimeMillis();
+        if (pending.isEmpty()) return;
+
+        List<Bucket> buckets = new ArrayList<>(pending.values());
+        pending.clear();
+
+        Map<String, Long> linkTotals = new HashMap<>();
+        for (Bucket bucket : buckets) {
+            linkTotals.merge(bucket.shortCode, bucket.downloads, Long::sum);
+            try {
+                writeBucket(bucket);
+            } catch (RuntimeException e) {
+                System.out.println("Failed to write stats for " + bucket.shortCode + ": " + e.getMessage());
+            }
+        }
+
+        for (Map.Entry<String, Long> total : linkTotals.entrySet()) {
+            try {
+                linkService.addDownloadCount(total.getKey(), total.getValue());
+            } catch (RuntimeException e) {
+                System.out.println("Failed to update download count for " + total.getKey() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void writeBucket(Bucket bucket) {
+        // Only the busiest hosts are written individually
+        List<Map.Entry<String, Long>> hosts = new ArrayList<>();
+        long other = 0;
+        long direct = 0;
+        for (Map.Entry<String, Long> referrer : bucket.referrers.entrySet()) {
+            if (referrer.getKey().equals(DIRECT)) {
+                direct = referrer.getValue();
+            } else if (referrer.getKey().equals(OTHER)) {
+                other += referrer.getValue();
+            } else {
+                hosts.add(referrer);
+            }
+        }
+        hosts.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        while (hosts.size() > MAX_REFERRERS_WRITTEN) {
+            other += hosts.remove(hosts.size() - 1).getValue();
+        }
+
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        StringBuilder expression = new StringBuilder("SET #expiresAt = :expiresAt ADD #downloads :downloads");
+        names.put("#expiresAt", EXPIRES_AT);
+        values.put(":expiresAt", AttributeValue.fromN(Long.toString(
+                LocalDate.parse(bucket.day).plusDays(retentionDays).toEpochDay() * 86_400L)));
+        names.put("#downloads", DOWNLOADS);
+        values.put(":downloads", AttributeValue.fromN(Long.toString(bucket.downloads)));
+        if (direct > 0) {
+            expression.append(", #direct :direct");
+            names.put("#direct", REFERRER_PREFIX + DIRECT);
+            values.put(":direct", AttributeValue.fromN(Long.toString(direct)));
+        }
+
+        int i = 0;
+        for (Map.Entry<String, Long> country : bucket.countries.entrySet()) {
+            expression.append(", #c").append(i).append(" :c").append(i);
+            names.put("#c" + i, COUNTRY_PREFIX + country.getKey());
+            values.put(":c" + i, AttributeValue.fromN(country.getValue().toString()));
+            i++;
+        }
+
+        Map<String, AttributeValue> key = statsKey(bucket.shortCode, bucket.day);
+        dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                .tableName(statsTableName)
+                .key(key)
+                .updateExpression(expression.toString())
+                .expressionAttributeNames(names)
+                .expressionAttributeValues(values)
+                .build());
+
+        for (Map.Entry<String, Long> host : hosts) {
+            if (!addReferrer(key, host.getKey(), host.getValue())) {
+                other += host.getValue();
+            }
+        }
+        if (other > 0) {
+            addCount(key, REFERRER_PREFIX + OTHER, other, null);
+        }
+    }
+
+    // Counts a host if the item already has it or still has room for it
+    private boolean addReferrer(Map<String, AttributeValue> key, String host, long count) {
+        String attribute = REFERRER_PREFIX + host;
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (addCount(key, attribute, count, "attribute_exists(#name)")) return true;
+            try {
+                dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                        .tableName(statsTableName)
+                        .key(key)
+                        .updateExpression("ADD #name :count, #hosts :one")
+                        .conditionExpression("attribute_not_exists(#name) AND (attribute_not_exists(#hosts) OR #hosts < :max)")
+                        .expressionAttributeNames(Map.of("#name", attribute, "#hosts", REFERRER_HOSTS))
+                        .expressionAttributeValues(Map.of(
+                            ":count", AttributeValue.fromN(Long.toString(count)),
+                            ":one", AttributeValue.fromN("1"),
+                            ":max", AttributeValue.fromN(Integer.toString(MAX_STORED_REFERRERS))))
+                        .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                        .build());
+                return true;
+            } catch (ConditionalCheckFailedException e) {
+                // Retry only if another writer added this host in the meantime; otherwise the item is full
+                if (!e.hasItem() || !e.item().containsKey(attribute)) return false;
+            }
+        }
+        return false;
+    }
+
+    private boolean addCount(Map<String, AttributeValue> key, String attribute, long count, String condition) {
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(statsTableName)
+                    .key(key)
+                    .updateExpression("ADD #name :count")
+                    .conditionExpression(condition)
+                    .expressionAttributeNames(Map.of("#name", attribute))
+                    .expressionAttributeValues(Map.of(":count", AttributeValue.fromN(Long.toString(count))))
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    private static Map<String, AttributeValue> statsKey(String shortCode, String day) {
+        return Map.of("shortCode", AttributeValue.fromS(shortCode), "day", AttributeValue.fromS(day));
+    }
+
+    private static String referrerHost(String referer) {
+        if (referer == null || referer.isEmpty()) return null;
+        try {
+            String host = URI.create(referer).getHost();
+            return host != null && host.length() <= MAX_HOST_LENGTH ? host.toLowerCase() : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String country(HttpServletRequest request) {
+        for (String header : COUNTRY_HEADERS) {
+            String value = request.getHeader(header);
+            if (value != null && value.length() == 2 && isAsciiLetter(value.charAt(0)) && isAsciiLetter(value.charAt(1))) {
+                return value.toUpperCase();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+}
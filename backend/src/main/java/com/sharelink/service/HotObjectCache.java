@@ -0,0 +1,237 @@
+package com.sharelink.service;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Off-heap cache for small, frequently downloaded S3 objects.
+ *
+ * Objects are admitted only once their estimated request frequency reaches
+ * {@code app.cache.hot.admitAfterHits}, and when the cache is full a candidate
+ * only replaces a victim that is requested less often (TinyLFU-style admission).
+ * Entries are keyed by S3 key and dropped when the owning link expires.
+ */
+@Service
+public class HotObjectCache {
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 4096;
+    private static final int VICTIM_SAMPLE = 8;
+
+    public static final class CachedObject {
+        private final ByteBuffer data;
+        private final String contentType;
+        private final Long expiresAt;
+
+        CachedObject(ByteBuffer data, String contentType, Long expiresAt) {
+            this.data = data;
+            this.contentType = contentType;
+            this.expiresAt = expiresAt;
+        }
+
+        /** Returns an independent read-only view, safe to consume from any thread. */
+        public ByteBuffer data() { return data.duplicate(); }
+        public int size() { return data.capacity(); }
+        public String getContentType() { return contentType; }
+        public Long getExpiresAt() { return expiresAt; }
+    }
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long maxObjectBytes;
+    private final int admitAfterHits;
+
+    private final ConcurrentHashMap<String, CachedObject> entries = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    // Count-min sketch of recent request frequency, halved periodically so old popularity fades
+    private final AtomicLongArray sketch;
+    private final int sketchMask;
+    private final AtomicInteger samples = new AtomicInteger();
+    private final int resetAfter;
+
+    public HotObjectCache(@Value("${app.cache.hot.enabled:false}") boolean enabled,
+                          @Value("${app.cache.hot.maxBytes:67108864}") long maxBytes,
+                          @Value("${app.cache.hot.maxObjectBytes:1048576}") long maxObjectBytes,
+                          @Value("${app.cache.hot.admitAfterHits:3}") int admitAfterHits,
+                          InvalidationBus bus) {
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.maxObjectBytes = Math.min(maxObjectBytes, maxBytes);
+        this.admitAfterHits = Math.max(1, admitAfterHits);
+
+        this.sketch = new AtomicLongArray(SKETCH_WIDTH * SKETCH_DEPTH);
+        this.sketchMask = SKETCH_WIDTH - 1;
+        this.resetAfter = SKETCH_WIDTH * 10;
+
+        // Objects deleted on any node
+        bus.subscribe(key -> {
+            if (key.startsWith(InvalidationBus.OBJECT_PREFIX)) {
+                invalidate(key.substring(InvalidationBus.OBJECT_PREFIX.length()));
+            }
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Whether an object of the given size may ever be cached. */
+    public boolean isCacheable(long size) {
+        return enabled && size >= 0 && size <= maxObjectBytes;
+    }
+
+    /** Looks up a key and records the access for admission purposes. */
+    public CachedObject get(String key) {
+        if (!enabled) return null;
+        recordAccess(key);
+
+        CachedObject cached = entries.get(key);
+        if (cached == null) return null;
+
+        Long expiresAt = cached.getExpiresAt();
+        if (expiresAt != null && System.currentTimeMillis() > expiresAt) {
+            invalidate(key);
+            return null;
+        }
+        return cached;
+    }
+
+    /** Whether the key has been requested often enough to be worth caching. */
+    public boolean shouldAdmit(String key, long size) {
+        return isCacheable(size) && !entries.containsKey(key) && frequency(key) >= admitAfterHits;
+    }
+
+    /**
+     * Copies the bytes off-heap and stores them if there is room, evicting colder
+     * entries when necessary. Returns the cached entry, or null if not admitted.
+     */
+    public CachedObject put(String key, byte[] bytes, String contentType, Long expiresAt) {
+        if (!isCacheable(bytes.length)) return null;
+        if (expiresAt != null && System.currentTimeMillis() > expiresAt) return null;
+        if (!makeRoom(key, bytes.length)) return null;
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        CachedObject cached = new CachedObject(buffer.asReadOnlyBuffer(), contentType, expiresAt);
+
+        CachedObject previous = entries.put(key, cached);
+        if (previous != null) {
+            usedBytes.addAndGet(-previous.size());
+        }
+        return cached;
+    }
+
+    public void invalidate(String key) {
+        CachedObject removed = entries.remove(key);
+        if (removed != null) {
+            usedBytes.addAndGet(-removed.size());
+        }
+    }
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    public int getEntryCount() {
+        return entries.size();
+    }
+
+    private boolean makeRoom(String key, int size) {
+        int candidateFrequency = frequency(key);
+        while (true) {
+            long used = usedBytes.get();
+            if (used + size <= maxBytes) {
+                if (usedBytes.compareAndSet(used, used + size)) return true;
+                continue;
+            }
+
+            String victim = pickVictim();
+            if (victim == null || frequency(victim) >= candidateFrequency) {
+                return false;
+            }
+            invalidate(victim);
+        }
+    }
+
+    // Samples a few consecutive entries from a random starting point, wrapping
+    // around once, so every entry gets a chance to be chosen
+    private String pickVictim() {
+        long now = System.currentTimeMillis();
+        String coldest = null;
+        int coldestFrequency = Integer.MAX_VALUE;
+
+        int size = entries.size();
+        int sample = Math.min(VICTIM_SAMPLE, size);
+        Iterator<Map.Entry<String, CachedObject>> it = entries.entrySet().iterator();
+        int skip = size > VICTIM_SAMPLE ? ThreadLocalRandom.current().nextInt(size) : 0;
+        while (skip-- > 0 && it.hasNext()) {
+            it.next();
+        }
+
+        boolean wrapped = false;
+        for (int i = 0; i < sample; i++) {
+            if (!it.hasNext()) {
+                if (wrapped) break;
+                it = entries.entrySet().iterator();
+                wrapped = true;
+                if (!it.hasNext()) break;
+            }
+            Map.Entry<String, CachedObject> entry = it.next();
+            Long expiresAt = entry.getValue().getExpiresAt();
+            if (expiresAt != null && now > expiresAt) {
+                return entry.getKey();
+            }
+            int f = frequency(entry.getKey());
+            if (f < coldestFrequency) {
+                coldest = entry.getKey();
+                coldestFrequency = f;
+            }
+        }
+        return coldest;
+    }
+
+    private void recordAccess(String key) {
+        int hash = spread(key.hashCode());
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            sketch.incrementAndGet(index(hash, row));
+        }
+        // Only the caller that wins the reset halves, so concurrent callers can't halve twice
+        int n = samples.incrementAndGet();
+        if (n >= resetAfter && samples.compareAndSet(n, 0)) {
+            for (int i = 0; i < sketch.length(); i++) {
+                sketch.set(i, sketch.get(i) >>> 1);
+            }
+        }
+    }
+
+    private int frequency(String key) {
+        int hash = spread(key.hashCode());
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            min = Math.min(min, sketch.get(index(hash, row)));
+        }
+        return (int) Math.min(min, Integer.MAX_VALUE);
+    }
+
+    private int index(int hash, int row) {
+        int h = hash * (0x9E3779B9 + (row << 1));
+        h ^= h >>> 16;
+        return row * SKETCH_WIDTH + (h & sketchMask);
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x45d9f3b;
+        return h ^ (h >>> 16);
+    }
+}
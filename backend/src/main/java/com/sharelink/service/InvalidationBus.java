@@ -0,0 +1,31 @@
+package com.sharelink.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Tells every node that a cached value is stale.
+ *
+ * Keys are namespaced with {@link #linkKey} / {@link #objectKey}. Listeners on
+ * the publishing node are called synchronously; other nodes hear about it on a
+ * best-effort basis, so caches must still expire entries on their own.
+ */
+public interface InvalidationBus {
+
+    String LINK_PREFIX = "link:";
+    String OBJECT_PREFIX = "object:";
+
+    void publish(String key);
+
+    void subscribe(Consumer<String> listener);
+
+    default void close() {
+    }
+
+    static String linkKey(String shortCode) {
+        return LINK_PREFIX + shortCode;
+    }
+
+    static String objectKey(String s3Key) {
+        return OBJECT_PREFIX + s3Key;
+    }
+}
@@ -0,0 +1,86 @@
+package com.sharelink.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.sharelink.model.ShareLink;
+
+/**
+ * Short-lived cache of link metadata, kept consistent across nodes through the
+ * {@link InvalidationBus}. The TTL is the fallback for invalidations a node missed.
+ * Missing links are not cached, so a new link is visible everywhere immediately.
+ */
+@Component
+public class LinkCache {
+
+    private static final class Entry {
+        final ShareLink link;
+        final long expiresAt;
+
+        Entry(ShareLink link, long expiresAt) {
+            this.link = link;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final InvalidationBus bus;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation so a load that raced with one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public LinkCache(InvalidationBus bus,
+                     @Value("${app.cache.links.ttlMillis:30000}") long ttlMillis,
+                     @Value("${app.cache.links.maxEntries:10000}") int maxEntries) {
+        this.bus = bus;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+
+        bus.subscribe(key -> {
+            if (key.startsWith(InvalidationBus.LINK_PREFIX)) {
+                evict(key.substring(InvalidationBus.LINK_PREFIX.length()));
+            }
+        });
+    }
+
+    public ShareLink get(String shortCode, Function<String, ShareLink> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(shortCode);
+        if (entry != null && entry.expiresAt > now) {
+            return entry.link;
+        }
+
+        long loadGeneration = generation.get();
+        ShareLink link = loader.apply(shortCode);
+        if (link == null || ttlMillis <= 0) {
+            entries.remove(shortCode);
+            return link;
+        }
+
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(e -> e.expiresAt <= now);
+            if (entries.size() >= maxEntries) return link;
+        }
+        entries.put(shortCode, new Entry(link, now + ttlMillis));
+        if (generation.get() != loadGeneration) {
+            entries.remove(shortCode);
+        }
+        return link;
+    }
+
+    // Drops the link here and on every other node
+    public void invalidate(String shortCode) {
+        bus.publish(InvalidationBus.linkKey(shortCode));
+    }
+
+    private void evict(String shortCode) {
+        generation.incrementAndGet();
+        entries.remove(shortCode);
+    }
+}
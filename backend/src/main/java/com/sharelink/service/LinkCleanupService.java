@@ -0,0 +1,167 @@
+package com.sharelink.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sharelink.model.ShareLink;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Deletes many links at once: S3 objects go out in DeleteObjects batches and
+ * metadata in BatchWriteItem batches, both run on a bounded worker pool.
+ * A link's metadata is only removed once all of its objects are gone, so a
+ * failed link can simply be retried. Download stats of deleted links are
+ * removed afterwards in the background.
+ *
+ * Thumbnails are always deleted at {@link PreviewService#previewKey}, whatever
+ * the given snapshot says: it may predate the preview. A preview finished while
+ * the objects were being deleted is caught by a second pass once the metadata
+ * is gone, after which {@link LinkService#setPreviewKey} refuses new ones.
+ */
+@Service
+public class LinkCleanupService {
+
+    public static final String DELETED = "deleted";
+    public static final String FAILED = "failed";
+    public static final String NOT_FOUND = "not_found";
+    public static final String FORBIDDEN = "forbidden";
+
+    private final S3Service s3Service;
+    private final LinkService linkService;
+    private final InvalidationBus invalidationBus;
+    private final DownloadAnalyticsService downloadAnalytics;
+    private final ExecutorService executor;
+
+    public LinkCleanupService(S3Service s3Service, LinkService linkService, InvalidationBus invalidationBus,
+                              DownloadAnalyticsService downloadAnalytics,
+                              @Value("${app.cleanup.parallelism:4}") int parallelism) {
+        this.s3Service = s3Service;
+        this.linkService = linkService;
+        this.invalidationBus = invalidationBus;
+        this.downloadAnalytics = downloadAnalytics;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // Returns shortCode -> DELETED or FAILED, in the order the links were given
+    public Map<String, String> deleteLinks(List<ShareLink> links) {
+        Map<String, ShareLink> distinct = new LinkedHashMap<>();
+        for (ShareLink link : links) {
+            distinct.putIfAbsent(link.getShortCode(), link);
+        }
+        links = new ArrayList<>(distinct.values());
+
+        Map<String, String> results = new LinkedHashMap<>();
+        Map<String, String> keyOwners = new HashMap<>();
+        List<String> keys = new ArrayList<>();
+        for (ShareLink link : links) {
+            results.put(link.getShortCode(), DELETED);
+            for (String key : link.getS3Keys()) {
+                keyOwners.put(key, link.getShortCode());
+                keys.add(key);
+            }
+            for (String key : previewKeys(link)) {
+                keyOwners.put(key, link.getShortCode());
+                keys.add(key);
+            }
+        }
+
+        // S3 objects first
+        List<CompletableFuture<Void>> objectBatches = new ArrayList<>();
+        for (List<String> batch : partition(keys, S3Service.MAX_DELETE_BATCH)) {
+            objectBatches.add(CompletableFuture
+                .supplyAsync(() -> s3Service.deleteFiles(batch), executor)
+                .handle((failedKeys, error) -> {
+                    synchronized (results) {
+                        if (error != null) {
+                            System.out.println("S3 batch delete failed: " + error.getMessage());
+                            batch.forEach(key -> results.put(keyOwners.get(key), FAILED));
+                        } else {
+                            failedKeys.keySet().forEach(key -> results.put(keyOwners.get(key), FAILED));
+                        }
+                    }
+                    return null;
+                }));
+        }
+        CompletableFuture.allOf(objectBatches.toArray(CompletableFuture[]::new)).join();
+
+        // Then metadata, only for links whose objects are all gone
+        List<String> deletable = new ArrayList<>();
+        for (ShareLink link : links) {
+            if (DELETED.equals(results.get(link.getShortCode()))) {
+                deletable.add(link.getShortCode());
+                link.getS3Keys().forEach(key -> invalidationBus.publish(InvalidationBus.objectKey(key)));
+                previewKeys(link).forEach(key -> invalidationBus.publish(InvalidationBus.objectKey(key)));
+            }
+        }
+
+        List<CompletableFuture<Void>> itemBatches = new ArrayList<>();
+        for (List<String> batch : partition(deletable, LinkService.MAX_WRITE_BATCH)) {
+            itemBatches.add(CompletableFuture
+                .supplyAsync(() -> linkService.deleteLinks(batch), executor)
+                .handle((unprocessed, error) -> {
+                    synchronized (results) {
+                        if (error != null) {
+                            System.out.println("DynamoDB batch delete failed: " + error.getMessage());
+                            batch.forEach(shortCode -> results.put(shortCode, FAILED));
+                        } else {
+                            unprocessed.forEach(shortCode -> results.put(shortCode, FAILED));
+                        }
+                    }
+                    return null;
+                }));
+        }
+        CompletableFuture.allOf(itemBatches.toArray(CompletableFuture[]::new)).join();
+
+        synchronized (results) {
+            // Stats rows also expire by TTL, so the caller doesn't wait for them
+            List<String> deleted = new ArrayList<>();
+            results.forEach((shortCode, result) -> {
+                if (DELETED.equals(result)) deleted.add(shortCode);
+            });
+            if (!deleted.isEmpty()) {
+                CompletableFuture.runAsync(() -> {
+                    for (List<String> batch : partition(deleted, S3Service.MAX_DELETE_BATCH)) {
+                        s3Service.deleteFiles(batch.stream().map(PreviewService::previewKey).toList());
+                    }
+                    downloadAnalytics.deleteStats(deleted);
+                }, executor).exceptionally(error -> {
+                    System.out.println("Post-delete cleanup failed: " + error.getMessage());
+                    return null;
+                });
+            }
+            return results;
+        }
+    }
+
+    // The standard thumbnail key, plus a recorded one if it ever differs
+    private static List<String> previewKeys(ShareLink link) {
+        String standard = PreviewService.previewKey(link.getShortCode());
+        if (link.getPreviewKey() == null || link.getPreviewKey().equals(standard)) {
+            return List.of(standard);
+        }
+        return List.of(standard, link.getPreviewKey());
+    }
+
+    static <T> List<List<T>> partition(List<T> items, int size) {
+        List<List<T>> batches = new ArrayList<>((items.size() + size - 1) / size);
+        for (int i = 0; i < items.size(); i += size) {
+            batches.add(items.subList(i, Math.min(i + size, items.size())));
+        }
+        return batches;
+    }
+}
@@ -1,97 +1,154 @@
 package com.sharelink.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.sharelink.model.ShareLink;
 
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
 import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
 
 
 @Service
 public class LinkService {
     private final DynamoDbClient dynamoDbClient;
+    private final ShareLinkCodec codec;
+    private final LinkCache linkCache;
     private final String tableName = "ShareLinks";
 
-    public LinkService(DynamoDbClient dynamoDbClient) {
+    public static final int MAX_WRITE_BATCH = 25;
+    public static final int MAX_READ_BATCH = 100;
+    private static final int MAX_BATCH_ATTEMPTS = 5;
+
+    public LinkService(DynamoDbClient dynamoDbClient, LinkCache linkCache,
+                       @Value("${app.links.compactEncoding:false}") boolean compactEncoding) {
         this.dynamoDbClient = dynamoDbClient;
+        this.linkCache = linkCache;
+        this.codec = new ShareLinkCodec(compactEncoding);
     }
     
-    public void incrementDownloadCount(String shortCode) {
-        ShareLink link = getLink(shortCode);
-        if (link == null) return;
-
-        long current = Optional.ofNullable(link.getDownloadCount()).orElse(0L);
-        link.setDownloadCount(current + 1);
-        saveLink(link);  // overwrites the item
+    // Atomic increment; does nothing if the link has been deleted in the meantime
+    public void addDownloadCount(String shortCode, long delta) {
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(tableName)
+                    .key(ShareLinkCodec.key(shortCode))
+                    .updateExpression("ADD " + ShareLinkCodec.DOWNLOAD_COUNT + " :delta")
+                    .conditionExpression("attribute_exists(" + ShareLinkCodec.SHORT_CODE + ")")
+                    .expressionAttributeValues(Map.of(":delta", AttributeValue.fromN(Long.toString(delta))))
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            // link is gone
+        }
     }
 
-    public void saveLink(ShareLink link) {
-        Map<String, AttributeValue> item = new HashMap<>();
-        item.put("shortCode", AttributeValue.fromS(link.getShortCode()));
-        item.put("s3Keys", AttributeValue.fromL(link.getS3Keys().stream().map(AttributeValue::fromS).toList()));
-        item.put("originalFilenames", AttributeValue.fromL(link.getOriginalFilenames().stream().map(AttributeValue::fromS).toList()));
-        item.put("fileSizes", AttributeValue.fromL(link.getFileSizes().stream().map(size -> AttributeValue.fromN(size.toString())).toList()));
-        if (link.getUsername() != null) {
-            item.put("username", AttributeValue.fromS(link.getUsername()));
-        }
-        item.put("createdAt", AttributeValue.fromN(link.getCreatedAt().toString()));
-        item.put("expiresAt", AttributeValue.fromN(link.getExpiresAt().toString()));
-        item.put("totalSize", AttributeValue.fromN(link.getTotalSize().toString()));
-        item.put("downloadCount", AttributeValue.fromN(
-            link.getDownloadCount() != null ? link.getDownloadCount().toString() : "0"
-        ));
-        if (link.getPassword() != null && !link.getPassword().isEmpty()) {
-            item.put("password", AttributeValue.fromS(link.getPassword()));
+    // Records a generated preview; does nothing if the link has been deleted in the meantime
+    public boolean setPreviewKey(String shortCode, String previewKey) {
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(tableName)
+                    .key(ShareLinkCodec.key(shortCode))
+                    .updateExpression("SET " + ShareLinkCodec.PREVIEW_KEY + " = :previewKey")
+                    .conditionExpression("attribute_exists(" + ShareLinkCodec.SHORT_CODE + ")")
+                    .expressionAttributeValues(Map.of(":previewKey", AttributeValue.fromS(previewKey)))
+                    .build());
+            linkCache.invalidate(shortCode);
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
         }
+    }
 
+    public void saveLink(ShareLink link) {
         PutItemRequest request = PutItemRequest.builder()
                 .tableName(tableName)
-                .item(item)
+                .item(codec.encode(link))
                 .build();
 
         dynamoDbClient.putItem(request);
+        linkCache.invalidate(link.getShortCode());
     }
 
-    @SuppressWarnings("UnnecessaryTemporaryOnConversionFromString")
+    // Served from the cluster-wide invalidated cache; downloadCount may lag by up to the cache TTL
     public ShareLink getLink(String shortCode) {
+        return linkCache.get(shortCode, this::loadLink);
+    }
+
+    // Strongly consistent: the result is cached, and a reload right after an
+    // invalidation must not pick up a replica that hasn't seen the write yet
+    private ShareLink loadLink(String shortCode) {
         GetItemRequest request = GetItemRequest.builder()
                 .tableName(tableName)
-                .key(Map.of("shortCode", AttributeValue.fromS(shortCode)))
+                .key(ShareLinkCodec.key(shortCode))
+                .consistentRead(true)
                 .build();
 
         Map<String, AttributeValue> item = dynamoDbClient.getItem(request).item();
         if (item == null || item.isEmpty()) return null;
 
-        ShareLink link = new ShareLink();
-        link.setShortCode(shortCode);
-        link.setS3Keys(item.get("s3Keys").l().stream().map(AttributeValue::s).toList());
-        link.setOriginalFilenames(item.get("originalFilenames").l().stream().map(AttributeValue::s).toList());
-        link.setFileSizes(item.get("fileSizes").l().stream().map(attr -> Long.parseLong(attr.n())).toList());
-        link.setCreatedAt(Long.parseLong(item.get("createdAt").n()));
-        link.setExpiresAt(Optional.ofNullable(item.get("expiresAt")).map(AttributeValue::n).map(Long::parseLong).orElse(null));
-        link.setTotalSize(Long.parseLong(item.get("totalSize").n()));
-        if (item.containsKey("downloadCount")) {
-            link.setDownloadCount(Long.parseLong(item.get("downloadCount").n()));
-        } else {
-            link.setDownloadCount(0L);  // default
-        }
-        if (item.containsKey("password") && item.get("password") != null) {
-            link.setPassword(item.get("password").s());
+        return codec.decode(item);
+    }
+
+    // Loads many links with BatchGetItem, bypassing the cache. Keys DynamoDB still
+    // leaves unprocessed after the retries are read one by one. Missing links are absent.
+    public Map<String, ShareLink> getLinks(Collection<String> shortCodes) {
+        List<String> codes = new ArrayList<>(new LinkedHashSet<>(shortCodes));
+        Map<String, ShareLink> links = new HashMap<>(codes.size() * 4 / 3 + 1);
+
+        for (int i = 0; i < codes.size(); i += MAX_READ_BATCH) {
+            List<Map<String, AttributeValue>> keys = new ArrayList<>();
+            for (String shortCode : codes.subList(i, Math.min(i + MAX_READ_BATCH, codes.size()))) {
+                keys.add(ShareLinkCodec.key(shortCode));
+            }
+
+            Map<String, KeysAndAttributes> pending = Map.of(tableName, KeysAndAttributes.builder().keys(keys).build());
+            long backoffMillis = 50;
+            for (int attempt = 1; !pending.isEmpty() && attempt <= MAX_BATCH_ATTEMPTS; attempt++) {
+                BatchGetItemResponse response = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                        .requestItems(pending)
+                        .build());
+                for (Map<String, AttributeValue> item : response.responses().getOrDefault(tableName, List.of())) {
+                    ShareLink link = codec.decode(item);
+                    links.put(link.getShortCode(), link);
+                }
+                pending = response.unprocessedKeys();
+
+                if (!pending.isEmpty() && attempt < MAX_BATCH_ATTEMPTS) {
+                    if (!backoff(backoffMillis)) break;
+                    backoffMillis *= 2;
+                }
+            }
+
+            if (pending.containsKey(tableName)) {
+                for (Map<String, AttributeValue> key : pending.get(tableName).keys()) {
+                    ShareLink link = loadLink(key.get(ShareLinkCodec.SHORT_CODE).s());
+                    if (link != null) links.put(link.getShortCode(), link);
+                }
+            }
         }
-        if (item.containsKey("username")) link.setUsername(item.get("username").s());
-        return link;
+        return links;
     }
 
-    @SuppressWarnings("UnnecessaryTemporaryOnConversionFromString")
     public List<ShareLink> getLinksByUsername(String username) {
         QueryRequest request = QueryRequest.builder()
                 .tableName(tableName)
@@ -100,28 +157,70 @@ public class LinkService {
                 .expressionAttributeValues(Map.of(":username", AttributeValue.fromS(username)))
                 .build();
 
-        List<Map<String, AttributeValue>> items = dynamoDbClient.query(request).items();
-
-        return items.stream().map(item -> {
-            ShareLink link = new ShareLink();
-            link.setShortCode(item.get("shortCode").s());
-            link.setS3Keys(item.get("s3Keys").l().stream().map(AttributeValue::s).toList());
-            link.setOriginalFilenames(item.get("originalFilenames").l().stream().map(AttributeValue::s).toList());
-            link.setFileSizes(item.get("fileSizes").l().stream().map(attr -> Long.parseLong(attr.n())).toList());
-            link.setCreatedAt(Long.parseLong(item.get("createdAt").n()));
-            link.setExpiresAt(Long.parseLong(item.get("expiresAt").n()));
-            link.setTotalSize(Long.parseLong(item.get("totalSize").n()));
-            if (item.containsKey("password")) link.setPassword(item.get("password").s());
-            if (item.containsKey("username")) link.setUsername(item.get("username").s());
-            if (item.containsKey("downloadCount")) link.setDownloadCount(Long.parseLong(item.get("downloadCount").n()));
-            return link;
-        }).toList();
+        // Paginate so accounts with more than 1 MB of link metadata are returned in full
+        List<ShareLink> links = new ArrayList<>();
+        for (Map<String, AttributeValue> item : dynamoDbClient.queryPaginator(request).items()) {
+            links.add(codec.decode(item));
+        }
+        return links;
     }
 
     public void deleteLink(String shortCode) {
         dynamoDbClient.deleteItem(builder -> builder
             .tableName(tableName)
-            .key(Map.of("shortCode", AttributeValue.fromS(shortCode)))
+            .key(ShareLinkCodec.key(shortCode))
         );
+        linkCache.invalidate(shortCode);
+    }
+
+    // Deletes up to MAX_WRITE_BATCH items with BatchWriteItem, retrying unprocessed
+    // items with exponential backoff. Returns the short codes that could not be deleted.
+    public Set<String> deleteLinks(List<String> shortCodes) {
+        // BatchWriteItem rejects the whole batch if a key appears twice
+        Set<String> distinct = new LinkedHashSet<>(shortCodes);
+        if (distinct.size() > MAX_WRITE_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_WRITE_BATCH + " items per batch");
+        }
+        List<WriteRequest> pending = new ArrayList<>(distinct.size());
+        for (String shortCode : distinct) {
+            pending.add(WriteRequest.builder()
+                    .deleteRequest(DeleteRequest.builder()
+                            .key(ShareLinkCodec.key(shortCode))
+                            .build())
+                    .build());
+        }
+
+        long backoffMillis = 50;
+        for (int attempt = 1; !pending.isEmpty() && attempt <= MAX_BATCH_ATTEMPTS; attempt++) {
+            Map<String, List<WriteRequest>> requestItems = Map.of(tableName, pending);
+            BatchWriteItemResponse response = dynamoDbClient.batchWriteItem(BatchWriteItemRequest.builder()
+                    .requestItems(requestItems)
+                    .build());
+            pending = response.unprocessedItems().getOrDefault(tableName, List.of());
+
+            if (!pending.isEmpty() && attempt < MAX_BATCH_ATTEMPTS) {
+                if (!backoff(backoffMillis)) break;
+                backoffMillis *= 2;
+            }
+        }
+
+        Set<String> unprocessed = new LinkedHashSet<>();
+        for (WriteRequest write : pending) {
+            unprocessed.add(write.deleteRequest().key().get(ShareLinkCodec.SHORT_CODE).s());
+        }
+        for (String shortCode : distinct) {
+            linkCache.invalidate(shortCode);
+        }
+        return unprocessed;
+    }
+
+    private static boolean backoff(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
 }
@@ -0,0 +1,98 @@
+package com.sharelink.service;
+
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.sharelink.util.ThumbnailUtil;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Generates PNG thumbnails for uploaded images and PDFs in the background.
+ *
+ * Work runs on a small fixed pool with a bounded queue; when the queue is
+ * full the upload simply gets no preview rather than slowing anything down.
+ * Only the S3 key is queued and workers read the source back from S3, so at
+ * most one source file per worker is held in memory. Thumbnails are stored
+ * next to the upload and recorded on the link.
+ */
+@Service
+public class PreviewService {
+
+    public static final String PREVIEW_CONTENT_TYPE = "image/png";
+
+    private final S3Service s3Service;
+    private final LinkService linkService;
+    private final ThreadPoolExecutor executor;
+    private final long maxSourceBytes;
+    private final int thumbnailSize;
+
+    public PreviewService(S3Service s3Service, LinkService linkService,
+                          @Value("${app.preview.workers:2}") int workers,
+                          @Value("${app.preview.queueSize:50}") int queueSize,
+                          @Value("${app.preview.maxSourceBytes:15728640}") long maxSourceBytes,
+                          @Value("${app.preview.thumbnailSize:320}") int thumbnailSize) {
+        this.s3Service = s3Service;
+        this.linkService = linkService;
+        this.maxSourceBytes = maxSourceBytes;
+        this.thumbnailSize = thumbnailSize;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "preview-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public static String previewKey(String shortCode) {
+        return "uploads/" + shortCode + "/.preview/thumbnail.png";
+    }
+
+    // Queues a thumbnail for an uploaded object if it is a supported type and there is capacity
+    public void submit(String shortCode, String s3Key, String contentType, long size) {
+        if (!ThumbnailUtil.isSupported(contentType) || size > maxSourceBytes) return;
+
+        try {
+            executor.execute(() -> generate(shortCode, s3Key, contentType));
+        } catch (RejectedExecutionException e) {
+            System.out.println("Preview queue full, skipping " + shortCode);
+        }
+    }
+
+    private void generate(String shortCode, String s3Key, String contentType) {
+        try {
+            byte[] data;
+            try (InputStream source = s3Service.getObjectStream(s3Key)) {
+                data = source.readNBytes((int) Math.min(maxSourceBytes + 1, Integer.MAX_VALUE - 8));
+            }
+            if (data.length > maxSourceBytes) return;  // object changed since the upload
+
+            byte[] thumbnail = ThumbnailUtil.generateThumbnail(data, contentType, thumbnailSize);
+            if (thumbnail == null) return;
+
+            String key = previewKey(shortCode);
+            s3Service.uploadFileFromBytes(thumbnail, key, PREVIEW_CONTENT_TYPE);
+            if (!linkService.setPreviewKey(shortCode, key)) {
+                s3Service.deleteFile(key);  // link was deleted while we worked
+            }
+        } catch (Exception e) {
+            System.out.println("Preview generation failed for " + shortCode + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,18 +1,27 @@
 package com.sharelink.service;
 import java.io.IOException;
-import java.io.InputStream;
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.annotation.PreDestroy;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Error;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 
@@ -23,13 +32,40 @@ public class S3Service {
     @Value("${aws.s3.bucketName}")
     private String bucketName;
 
-    @Value("${cloud.aws.region.static}")
-    private String region;
-    
+    // Presigned URLs are valid for 5 minutes; reuse each one for at most this long
+    @Value("${app.cache.presign.ttlMillis:60000}")
+    private long presignTtlMillis;
+
+    private static final int MAX_CACHED_URLS = 10000;
+
+    private static final class CachedUrl {
+        final String url;
+        final long expiresAt;
+
+        CachedUrl(String url, long expiresAt) {
+            this.url = url;
+            this.expiresAt = expiresAt;
+        }
+    }
+
     private final S3Client s3Client;
+    private final S3Presigner presigner;
+    private final ConcurrentHashMap<String, CachedUrl> presignedUrls = new ConcurrentHashMap<>();
     
-    public S3Service(S3Client s3Client) {
+    public S3Service(S3Client s3Client, InvalidationBus invalidationBus,
+                     @Value("${cloud.aws.region.static}") String region) {
         this.s3Client = s3Client;
+        this.presigner = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(DefaultCredentialsProvider.create())
+                .build();
+
+        // Objects deleted on any node
+        invalidationBus.subscribe(key -> {
+            if (key.startsWith(InvalidationBus.OBJECT_PREFIX)) {
+                presignedUrls.remove(key.substring(InvalidationBus.OBJECT_PREFIX.length()));
+            }
+        });
     }
 
     public String uploadFile(MultipartFile file, String key) throws IOException {
@@ -44,11 +80,23 @@ public class S3Service {
     }
     
     public String generatePresignedUrl(String key) {
-        S3Presigner presigner = S3Presigner.builder()
-            .region(Region.of(region))
-            .credentialsProvider(DefaultCredentialsProvider.create())
-            .build();
+        long now = System.currentTimeMillis();
+        CachedUrl cached = presignedUrls.get(key);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.url;
+        }
+
+        String url = presign(key);
+        if (presignedUrls.size() >= MAX_CACHED_URLS) {
+            presignedUrls.values().removeIf(entry -> entry.expiresAt <= now);
+        }
+        if (presignTtlMillis > 0 && presignedUrls.size() < MAX_CACHED_URLS) {
+            presignedUrls.put(key, new CachedUrl(url, now + presignTtlMillis));
+        }
+        return url;
+    }
 
+    private String presign(String key) {
         GetObjectRequest getObjectRequest = GetObjectRequest.builder()
                 .bucket(bucketName)
                 .key(key)
@@ -63,8 +111,13 @@ public class S3Service {
         return presigner.presignGetObject(presignRequest).url().toString();
     }
 
+    @PreDestroy
+    public void close() {
+        presigner.close();
+    }
 
-    public InputStream getObjectStream(String key) {
+
+    public ResponseInputStream<GetObjectResponse> getObjectStream(String key) {
         GetObjectRequest request = GetObjectRequest.builder()
                 .bucket(bucketName)
                 .key(key)
@@ -80,6 +133,32 @@ public class S3Service {
         );
     }
 
+    public static final int MAX_DELETE_BATCH = 1000;
+
+    // Deletes up to MAX_DELETE_BATCH keys in one DeleteObjects call.
+    // Returns the keys S3 could not delete, mapped to the error message.
+    public Map<String, String> deleteFiles(List<String> keys) {
+        if (keys.size() > MAX_DELETE_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_DELETE_BATCH + " keys per batch");
+        }
+        Map<String, String> failed = new HashMap<>();
+        if (keys.isEmpty()) return failed;
+
+        List<ObjectIdentifier> objects = keys.stream()
+                .map(key -> ObjectIdentifier.builder().key(key).build())
+                .toList();
+
+        DeleteObjectsResponse response = s3Client.deleteObjects(builder -> builder
+            .bucket(bucketName)
+            .delete(delete -> delete.objects(objects).quiet(true))
+        );
+
+        for (S3Error error : response.errors()) {
+            failed.put(error.key(), error.message());
+        }
+        return failed;
+    }
+
     public void uploadFileFromBytes(byte[] data, String key, String contentType) {
         s3Client.putObject(PutObjectRequest.builder()
                         .bucket(bucketName)
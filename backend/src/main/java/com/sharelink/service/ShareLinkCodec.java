@@ -0,0 +1,220 @@
+package com.sharelink.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sharelink.model.ShareLink;
+import com.sharelink.util.LongArrayList;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Single mapping between {@link ShareLink} and its DynamoDB item.
+ *
+ * With compact encoding enabled, file sizes and original filenames are packed
+ * into one binary {@code files} attribute instead of two list attributes:
+ * a varint file count, then per file a varint size, a varint name length and
+ * the UTF-8 name bytes. Both layouts are always readable.
+ */
+public final class ShareLinkCodec {
+
+    public static final String SHORT_CODE = "shortCode";
+    public static final String USERNAME = "username";
+    public static final String PASSWORD = "password";
+    public static final String S3_KEYS = "s3Keys";
+    public static final String ORIGINAL_FILENAMES = "originalFilenames";
+    public static final String FILE_SIZES = "fileSizes";
+    public static final String FILES = "files";
+    public static final String CREATED_AT = "createdAt";
+    public static final String EXPIRES_AT = "expiresAt";
+    public static final String TOTAL_SIZE = "totalSize";
+    public static final String DOWNLOAD_COUNT = "downloadCount";
+    public static final String PREVIEW_KEY = "previewKey";
+
+    private static final int MAX_ATTRIBUTES = 12;
+
+    private final boolean compact;
+
+    public ShareLinkCodec(boolean compact) {
+        this.compact = compact;
+    }
+
+    public static Map<String, AttributeValue> key(String shortCode) {
+        return Map.of(SHORT_CODE, AttributeValue.fromS(shortCode));
+    }
+
+    public Map<String, AttributeValue> encode(ShareLink link) {
+        Map<String, AttributeValue> item = new HashMap<>(MAX_ATTRIBUTES * 4 / 3 + 1);
+        item.put(SHORT_CODE, AttributeValue.fromS(link.getShortCode()));
+        item.put(S3_KEYS, AttributeValue.fromL(encodeStrings(link.getS3Keys())));
+
+        if (compact) {
+            item.put(FILES, AttributeValue.fromB(encodeFiles(link.getOriginalFilenames(), link.getFileSizes())));
+        } else {
+            item.put(ORIGINAL_FILENAMES, AttributeValue.fromL(encodeStrings(link.getOriginalFilenames())));
+            item.put(FILE_SIZES, AttributeValue.fromL(encodeLongs(link.getFileSizes())));
+        }
+
+        if (link.getUsername() != null) {
+            item.put(USERNAME, AttributeValue.fromS(link.getUsername()));
+        }
+        if (link.getPassword() != null && !link.getPassword().isEmpty()) {
+            item.put(PASSWORD, AttributeValue.fromS(link.getPassword()));
+        }
+        if (link.getPreviewKey() != null) {
+            item.put(PREVIEW_KEY, AttributeValue.fromS(link.getPreviewKey()));
+        }
+        putNumber(item, CREATED_AT, link.getCreatedAt());
+        putNumber(item, EXPIRES_AT, link.getExpiresAt());
+        putNumber(item, TOTAL_SIZE, link.getTotalSize());
+        item.put(DOWNLOAD_COUNT, AttributeValue.fromN(
+            link.getDownloadCount() != null ? link.getDownloadCount().toString() : "0"
+        ));
+        return item;
+    }
+
+    public ShareLink decode(Map<String, AttributeValue> item) {
+        ShareLink link = new ShareLink();
+        link.setShortCode(item.get(SHORT_CODE).s());
+        link.setS3Keys(decodeStrings(item.get(S3_KEYS)));
+
+        AttributeValue files = item.get(FILES);
+        if (files != null && files.b() != null) {
+            decodeFiles(files.b(), link);
+        } else {
+            link.setOriginalFilenames(decodeStrings(item.get(ORIGINAL_FILENAMES)));
+            link.setFileSizes(decodeLongs(item.get(FILE_SIZES)));
+        }
+
+        link.setUsername(getString(item, USERNAME));
+        link.setPassword(getString(item, PASSWORD));
+        link.setPreviewKey(getString(item, PREVIEW_KEY));
+        link.setCreatedAt(getNumber(item, CREATED_AT));
+        link.setExpiresAt(getNumber(item, EXPIRES_AT));
+        link.setTotalSize(getNumber(item, TOTAL_SIZE));
+        Long downloadCount = getNumber(item, DOWNLOAD_COUNT);
+        link.setDownloadCount(downloadCount != null ? downloadCount : 0L);
+        return link;
+    }
+
+    private static List<AttributeValue> encodeStrings(List<String> values) {
+        List<AttributeValue> list = new ArrayList<>(values.size());
+        for (String value : values) {
+            list.add(AttributeValue.fromS(value));
+        }
+        return list;
+    }
+
+    private static List<AttributeValue> encodeLongs(List<Long> values) {
+        List<AttributeValue> list = new ArrayList<>(values.size());
+        for (Long value : values) {
+            list.add(AttributeValue.fromN(value.toString()));
+        }
+        return list;
+    }
+
+    private static List<String> decodeStrings(AttributeValue attr) {
+        if (attr == null || !attr.hasL()) return List.of();
+        List<AttributeValue> list = attr.l();
+        String[] values = new String[list.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = list.get(i).s();
+        }
+        return Arrays.asList(values);
+    }
+
+    private static List<Long> decodeLongs(AttributeValue attr) {
+        if (attr == null || !attr.hasL()) return new LongArrayList(new long[0]);
+        List<AttributeValue> list = attr.l();
+        long[] values = new long[list.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Long.parseLong(list.get(i).n());
+        }
+        return new LongArrayList(values);
+    }
+
+    private static SdkBytes encodeFiles(List<String> names, List<Long> sizes) {
+        int count = names.size();
+        byte[][] encodedNames = new byte[count][];
+        int length = varintLength(count);
+        for (int i = 0; i < count; i++) {
+            encodedNames[i] = names.get(i).getBytes(StandardCharsets.UTF_8);
+            length += varintLength(sizes.get(i)) + varintLength(encodedNames[i].length) + encodedNames[i].length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        writeVarint(buffer, count);
+        for (int i = 0; i < count; i++) {
+            writeVarint(buffer, sizes.get(i));
+            writeVarint(buffer, encodedNames[i].length);
+            buffer.put(encodedNames[i]);
+        }
+        return SdkBytes.fromByteArrayUnsafe(buffer.array());
+    }
+
+    private static void decodeFiles(SdkBytes bytes, ShareLink link) {
+        byte[] data = bytes.asByteArrayUnsafe();
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int count = (int) readVarint(buffer);
+
+        String[] names = new String[count];
+        long[] sizes = new long[count];
+        for (int i = 0; i < count; i++) {
+            sizes[i] = readVarint(buffer);
+            int nameLength = (int) readVarint(buffer);
+            names[i] = new String(data, buffer.position(), nameLength, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + nameLength);
+        }
+        link.setOriginalFilenames(Arrays.asList(names));
+        link.setFileSizes(new LongArrayList(sizes));
+    }
+
+    private static int varintLength(long value) {
+        int length = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            length++;
+        }
+        return length;
+    }
+
+    private static void writeVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Malformed varint in " + FILES + " attribute");
+    }
+
+    private static void putNumber(Map<String, AttributeValue> item, String name, Long value) {
+        if (value != null) {
+            item.put(name, AttributeValue.fromN(value.toString()));
+        }
+    }
+
+    private static Long getNumber(Map<String, AttributeValue> item, String name) {
+        AttributeValue attr = item.get(name);
+        return attr != null && attr.n() != null ? Long.parseLong(attr.n()) : null;
+    }
+
+    private static String getString(Map<String, AttributeValue> item, String name) {
+        AttributeValue attr = item.get(name);
+        return attr != null ? attr.s() : null;
+    }
+}
@@ -0,0 +1,190 @@
+package com.sharelink.service;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Multi-node bus that sends invalidations to a static list of peers over UDP.
+ *
+ * Published keys are collected for {@code batchMillis}, de-duplicated, and sent
+ * as a few datagrams per peer, so a bulk delete costs a handful of packets.
+ * Lost packets are not retried; the caches' TTL bounds how long a node can
+ * stay stale. Datagrams from addresses other than the configured peers are
+ * dropped. Running several instances on localhost ports is enough to
+ * simulate a cluster.
+ */
+public class UdpInvalidationBus implements InvalidationBus {
+
+    private static final String MAGIC = "SLINV1";
+    private static final int MAX_PACKET_BYTES = 1400;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final DatagramSocket socket;
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService flusher;
+    private final Thread receiver;
+    private volatile Set<InetSocketAddress> peers;
+
+    // Sent counters, for observing how well bursts are coalesced
+    private final AtomicLong sentKeys = new AtomicLong();
+    private final AtomicLong sentDatagrams = new AtomicLong();
+
+    public UdpInvalidationBus(InetSocketAddress bindAddress, List<InetSocketAddress> peers, long batchMillis)
+            throws SocketException {
+        this.socket = new DatagramSocket(bindAddress);
+        this.peers = Set.copyOf(peers);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "invalidation-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, batchMillis, batchMillis, TimeUnit.MILLISECONDS);
+
+        this.receiver = new Thread(this::receiveLoop, "invalidation-receive");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    public int getLocalPort() {
+        return socket.getLocalPort();
+    }
+
+    public void setPeers(List<InetSocketAddress> peers) {
+        this.peers = Set.copyOf(peers);
+    }
+
+    long getSentKeys() {
+        return sentKeys.get();
+    }
+
+    long getSentDatagrams() {
+        return sentDatagrams.get();
+    }
+
+    @Override
+    public void publish(String key) {
+        notifyListeners(key);
+        pending.add(key);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        flush();
+        socket.close();
+    }
+
+    void flush() {
+        if (pending.isEmpty()) return;
+
+        List<String> keys = new ArrayList<>();
+        Iterator<String> it = pending.iterator();
+        while (it.hasNext()) {
+            keys.add(it.next());
+            it.remove();
+        }
+
+        sentKeys.addAndGet(keys.size());
+        for (byte[] payload : encode(keys)) {
+            for (InetSocketAddress peer : peers) {
+                try {
+                    socket.send(new DatagramPacket(payload, payload.length, peer));
+                    sentDatagrams.incrementAndGet();
+                } catch (IOException e) {
+                    System.out.println("Failed to send invalidations to " + peer + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Each datagram: MAGIC \n nodeId \n key \n key ...
+    private List<byte[]> encode(List<String> keys) {
+        byte[] header = (MAGIC + "\n" + nodeId).getBytes(StandardCharsets.UTF_8);
+        List<byte[]> payloads = new ArrayList<>();
+        StringBuilder body = new StringBuilder();
+        int size = header.length;
+
+        for (String key : keys) {
+            int keyBytes = key.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (size + keyBytes > MAX_PACKET_BYTES && body.length() > 0) {
+                payloads.add(concat(header, body));
+                body.setLength(0);
+                size = header.length;
+            }
+            body.append('\n').append(key);
+            size += keyBytes;
+        }
+        if (body.length() > 0) {
+            payloads.add(concat(header, body));
+        }
+        return payloads;
+    }
+
+    private static byte[] concat(byte[] header, StringBuilder body) {
+        byte[] tail = body.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] payload = new byte[header.length + tail.length];
+        System.arraycopy(header, 0, payload, 0, header.length);
+        System.arraycopy(tail, 0, payload, header.length, tail.length);
+        return payload;
+    }
+
+    private void receiveLoop() {
+        byte[] buffer = new byte[65535];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+            } catch (IOException e) {
+                if (socket.isClosed()) return;
+                continue;
+            }
+            if (!isPeer(packet.getSocketAddress())) continue;
+
+            String[] lines = new String(packet.getData(), packet.getOffset(), packet.getLength(),
+                    StandardCharsets.UTF_8).split("\n");
+            if (lines.length < 2 || !MAGIC.equals(lines[0]) || nodeId.equals(lines[1])) continue;
+            for (int i = 2; i < lines.length; i++) {
+                notifyListeners(lines[i]);
+            }
+        }
+    }
+
+    // Peers send from the socket they listen on, so the source must be a configured peer
+    private boolean isPeer(SocketAddress source) {
+        return peers.contains(source);
+    }
+
+    private void notifyListeners(String key) {
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(key);
+            } catch (RuntimeException e) {
+                System.out.println("Invalidation listener failed for " + key + ": " + e.getMessage());
+            }
+        }
+    }
+}
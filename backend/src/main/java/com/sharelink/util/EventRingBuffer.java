@@ -0,0 +1,75 @@
+package com.sharelink.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring buffer for many producers and a single consumer.
+ *
+ * Each slot carries a sequence number telling producers whether it is free
+ * and the consumer whether it has been published, so neither side blocks.
+ * {@link #offer} fails instead of waiting when the buffer is full.
+ */
+public final class EventRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    public EventRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public boolean offer(T item) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.lazySet(index, item);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;  // full
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    // Must only be called from one thread at a time
+    public int drain(Consumer<T> consumer, int max) {
+        long pos = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (pos & mask);
+            if (sequences.get(index) != pos + 1) break;  // not yet published
+
+            T item = slots.get(index);
+            slots.lazySet(index, null);
+            sequences.set(index, pos + mask + 1);
+            pos++;
+            drained++;
+            consumer.accept(item);
+        }
+        head.set(pos);
+        return drained;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
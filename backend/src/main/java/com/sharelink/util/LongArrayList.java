@@ -0,0 +1,24 @@
+package com.sharelink.util;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+// Read-only List<Long> view over a long[], so decoded sizes are not boxed up front
+public final class LongArrayList extends AbstractList<Long> implements RandomAccess {
+
+    private final long[] values;
+
+    public LongArrayList(long[] values) {
+        this.values = values;
+    }
+
+    @Override
+    public Long get(int index) {
+        return values[index];
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+}
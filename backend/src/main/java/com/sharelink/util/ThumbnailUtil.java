@@ -0,0 +1,88 @@
+package com.sharelink.util;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+public class ThumbnailUtil {
+
+    // Returns true for content types we can render a preview for
+    public static boolean isSupported(String contentType) {
+        if (contentType == null) return false;
+        return contentType.equals("application/pdf")
+                || contentType.equals("image/png")
+                || contentType.equals("image/jpeg")
+                || contentType.equals("image/gif")
+                || contentType.equals("image/bmp");
+    }
+
+    // Renders a PNG thumbnail no larger than maxSize on either side, or null if the file can't be read
+    public static byte[] generateThumbnail(byte[] data, String contentType, int maxSize) throws IOException {
+        BufferedImage source;
+        if (contentType.equals("application/pdf")) {
+            try (PDDocument document = Loader.loadPDF(data)) {
+                if (document.getNumberOfPages() == 0) return null;
+                // Render the first page at roughly the target size instead of full resolution
+                float pageWidth = document.getPage(0).getMediaBox().getWidth();
+                float pageHeight = document.getPage(0).getMediaBox().getHeight();
+                float scale = maxSize / Math.max(pageWidth, pageHeight);
+                source = new PDFRenderer(document).renderImage(0, Math.min(scale * 2, 2f), ImageType.RGB);
+            }
+        } else {
+            source = readSubsampled(data, maxSize);
+        }
+        if (source == null) return null;
+
+        double ratio = Math.min(1.0, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = thumbnail.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ImageIO.write(thumbnail, "PNG", stream);
+        return stream.toByteArray();
+    }
+
+    // Decodes only every n-th pixel of large images, so a huge photo never gets fully decoded
+    private static BufferedImage readSubsampled(byte[] data, int maxSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) return null;
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int largest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, largest / (maxSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.sharelink.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LocalRateLimitStoreTest {
+
+	private static final long SECOND = 1_000_000L;
+	private static final long NOW = 1_700_000_000L * SECOND;
+
+	@Test
+	void allowsBurstThenRefillsAtRate() {
+		LocalRateLimitStore store = new LocalRateLimitStore(100);
+		RateLimit limit = new RateLimit(3, 60);  // one token per second
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0L, store.tryAcquire("k", limit, NOW), "burst request " + i);
+		}
+		assertEquals(SECOND, store.tryAcquire("k", limit, NOW), "wait for one token");
+		assertEquals(SECOND / 2, store.tryAcquire("k", limit, NOW + SECOND / 2), "half refilled");
+
+		assertEquals(0L, store.tryAcquire("k", limit, NOW + SECOND), "one token refilled");
+		assertEquals(SECOND, store.tryAcquire("k", limit, NOW + SECOND), "empty again");
+
+		// A full refill allows a whole burst again
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0L, store.tryAcquire("k", limit, NOW + 10 * SECOND), "refilled burst " + i);
+		}
+	}
+
+	@Test
+	void rejectedRequestsDoNotConsumeTokens() {
+		LocalRateLimitStore store = new LocalRateLimitStore(100);
+		RateLimit limit = new RateLimit(1, 60);
+
+		assertEquals(0L, store.tryAcquire("k", limit, NOW), "first");
+		for (int i = 0; i < 10; i++) {
+			assertEquals(SECOND, store.tryAcquire("k", limit, NOW), "rejected " + i);
+		}
+		assertEquals(0L, store.tryAcquire("k", limit, NOW + SECOND), "after one interval");
+	}
+
+	@Test
+	void keysAreIndependent() {
+		LocalRateLimitStore store = new LocalRateLimitStore(100);
+		RateLimit limit = new RateLimit(1, 60);
+
+		assertEquals(0L, store.tryAcquire("a", limit, NOW), "a");
+		assertTrue(store.tryAcquire("a", limit, NOW) > 0, "a exhausted");
+		assertEquals(0L, store.tryAcquire("b", limit, NOW), "b");
+	}
+
+	@Test
+	void evictsRefilledBucketsFirst() {
+		LocalRateLimitStore store = new LocalRateLimitStore(10);
+		RateLimit limit = new RateLimit(1, 60);
+
+		for (int i = 0; i < 10; i++) {
+			store.tryAcquire("old" + i, limit, NOW);
+		}
+		assertEquals(10, store.size(), "full");
+
+		// Every old bucket has refilled by now, so all of them can go
+		store.tryAcquire("new", limit, NOW + 10 * SECOND);
+		assertEquals(1, store.size(), "after sweep");
+	}
+
+	@Test
+	void floodOfDistinctKeysStaysBounded() {
+		LocalRateLimitStore store = new LocalRateLimitStore(100);
+		RateLimit limit = new RateLimit(1, 60);
+
+		for (int i = 0; i < 10_000; i++) {
+			store.tryAcquire("spoofed" + i, limit, NOW);
+		}
+		assertTrue(store.size() <= 100, "size " + store.size());
+	}
+}
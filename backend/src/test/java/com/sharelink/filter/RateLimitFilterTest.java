@@ -0,0 +1,119 @@
+package com.sharelink.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RateLimitFilterTest {
+
+	private static RateLimitFilter filter(MockEnvironment env) {
+		env.setProperty("app.ratelimit.qr.client.capacity", "2");
+		env.setProperty("app.ratelimit.qr.client.perMinute", "6");  // one token per 10 s
+		return new RateLimitFilter(new RateLimiter(new LocalRateLimitStore(1000), env));
+	}
+
+	private static MockHttpServletRequest qr(String remoteAddr, String forwardedFor) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/abc123/qr");
+		request.setRemoteAddr(remoteAddr);
+		if (forwardedFor != null) request.addHeader("X-Forwarded-For", forwardedFor);
+		return request;
+	}
+
+	private static MockHttpServletResponse send(RateLimitFilter filter, MockHttpServletRequest request) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+	@Test
+	void rejectsWithRetryAfterOnceBucketIsEmpty() throws Exception {
+		RateLimitFilter filter = filter(new MockEnvironment());
+
+		assertEquals(200, send(filter, qr("10.0.0.1", null)).getStatus());
+		assertEquals(200, send(filter, qr("10.0.0.1", null)).getStatus());
+
+		MockHttpServletResponse rejected = send(filter, qr("10.0.0.1", null));
+		assertEquals(429, rejected.getStatus());
+		// Next token is due in 10 s, minus the few milliseconds the test took
+		assertEquals("10", rejected.getHeader("Retry-After"));
+
+		assertEquals(200, send(filter, qr("10.0.0.2", null)).getStatus());
+	}
+
+	@Test
+	void forwardedForIsIgnoredByDefault() throws Exception {
+		RateLimitFilter filter = filter(new MockEnvironment());
+
+		send(filter, qr("10.0.0.1", "1.1.1.1"));
+		send(filter, qr("10.0.0.1", "2.2.2.2"));
+		assertEquals(429, send(filter, qr("10.0.0.1", "3.3.3.3")).getStatus());
+	}
+
+	@Test
+	void trustedProxyHopIsCountedFromTheRight() throws Exception {
+		MockEnvironment env = new MockEnvironment();
+		env.setProperty("app.ratelimit.trustedProxies", "1");
+		RateLimitFilter filter = filter(env);
+
+		// The client controls everything left of the address our proxy appended
+		send(filter, qr("10.0.0.1", "1.1.1.1, 203.0.113.7"));
+		send(filter, qr("10.0.0.1", "2.2.2.2, 203.0.113.7"));
+		assertEquals(429, send(filter, qr("10.0.0.1", "3.3.3.3, 203.0.113.7")).getStatus());
+		assertEquals(200, send(filter, qr("10.0.0.1", "203.0.113.8")).getStatus());
+	}
+
+	@Test
+	void limitsPreviewEndpoint() throws Exception {
+		MockEnvironment env = new MockEnvironment();
+		env.setProperty("app.ratelimit.preview.client.capacity", "1");
+		RateLimitFilter filter = filter(env);
+
+		assertEquals(200, send(filter, new MockHttpServletRequest("GET", "/api/abc123/preview")).getStatus());
+		assertEquals(429, send(filter, new MockHttpServletRequest("GET", "/api/abc123/preview")).getStatus());
+	}
+
+	@Test
+	void encodedEndpointNameIsLimited() throws Exception {
+		RateLimitFilter filter = filter(new MockEnvironment());
+
+		send(filter, new MockHttpServletRequest("GET", "/api/abc123/q%72"));
+		send(filter, new MockHttpServletRequest("GET", "/api/abc123/%71r"));
+		assertEquals(429, send(filter, new MockHttpServletRequest("GET", "/api/abc123/qr")).getStatus());
+	}
+
+	@Test
+	void pathParametersShareTheSameBuckets() throws Exception {
+		MockEnvironment env = new MockEnvironment();
+		env.setProperty("app.ratelimit.download.link.capacity", "2");
+		RateLimitFilter filter = filter(env);
+
+		// Varying ;params in the code segment must not yield a fresh per-link bucket
+		send(filter, new MockHttpServletRequest("GET", "/api/abc123;x=1/download"));
+		send(filter, new MockHttpServletRequest("GET", "/api/abc123/file;x=2"));
+		assertEquals(429, send(filter, new MockHttpServletRequest("GET", "/api/abc123;x=3/download")).getStatus());
+		assertEquals(200, send(filter, new MockHttpServletRequest("GET", "/api/def456/download")).getStatus());
+	}
+
+	@Test
+	void ignoresUnlimitedPaths() throws Exception {
+		RateLimitFilter filter = filter(new MockEnvironment());
+
+		for (int i = 0; i < 5; i++) {
+			MockHttpServletResponse response = send(filter, new MockHttpServletRequest("GET", "/api/info/abc123"));
+			assertEquals(200, response.getStatus());
+			assertNull(response.getHeader("Retry-After"));
+		}
+	}
+
+	@Test
+	void retryAfterRoundsUpToWholeSeconds() {
+		assertEquals(1L, RateLimiter.retryAfterSeconds(1));
+		assertEquals(1L, RateLimiter.retryAfterSeconds(1_000_000));
+		assertEquals(2L, RateLimiter.retryAfterSeconds(1_000_001));
+	}
+}
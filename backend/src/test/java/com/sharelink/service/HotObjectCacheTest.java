@@ -0,0 +1,124 @@
+package com.sharelink.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class HotObjectCacheTest {
+
+	private final LocalInvalidationBus bus = new LocalInvalidationBus();
+
+	private HotObjectCache cache(long maxBytes, int admitAfterHits) {
+		return new HotObjectCache(true, maxBytes, maxBytes, admitAfterHits, bus);
+	}
+
+	private static void hit(HotObjectCache cache, String key, int times) {
+		for (int i = 0; i < times; i++) {
+			cache.get(key);
+		}
+	}
+
+	@Test
+	void admitsOnlyAfterEnoughRequests() {
+		HotObjectCache cache = cache(1024, 3);
+
+		hit(cache, "a", 2);
+		assertFalse(cache.shouldAdmit("a", 10));
+		hit(cache, "a", 1);
+		assertTrue(cache.shouldAdmit("a", 10));
+		assertFalse(cache.shouldAdmit("a", 2048), "larger than maxObjectBytes");
+
+		assertNotNull(cache.put("a", new byte[10], "text/plain", null));
+		assertFalse(cache.shouldAdmit("a", 10), "already cached");
+	}
+
+	@Test
+	void disabledCacheStoresNothing() {
+		HotObjectCache cache = new HotObjectCache(false, 1024, 1024, 1, bus);
+		assertNull(cache.put("a", new byte[10], "text/plain", null));
+		assertNull(cache.get("a"));
+		assertEquals(0L, cache.getUsedBytes());
+	}
+
+	@Test
+	void colderCandidateDoesNotEvictHotterEntry() {
+		HotObjectCache cache = cache(100, 1);
+
+		hit(cache, "hot", 5);
+		assertNotNull(cache.put("hot", new byte[60], "text/plain", null));
+
+		hit(cache, "cold", 1);
+		assertNull(cache.put("cold", new byte[60], "text/plain", null));
+		assertNotNull(cache.get("hot"));
+
+		hit(cache, "cold", 10);
+		assertNotNull(cache.put("cold", new byte[60], "text/plain", null));
+		assertNull(cache.get("hot"));
+		assertEquals(60L, cache.getUsedBytes());
+		assertEquals(1, cache.getEntryCount(), "entry count");
+	}
+
+	@Test
+	void coldEntryAnywhereInTheCacheCanBeEvicted() {
+		HotObjectCache cache = cache(100, 1);
+		for (int i = 0; i < 9; i++) {
+			hit(cache, "hot" + i, 10);
+			assertNotNull(cache.put("hot" + i, new byte[10], "text/plain", null));
+		}
+		hit(cache, "cold", 1);
+		assertNotNull(cache.put("cold", new byte[10], "text/plain", null));
+
+		// Samples start at a random entry, so the cold one is found wherever it sits
+		hit(cache, "candidate", 5);
+		boolean admitted = false;
+		for (int attempt = 0; attempt < 50 && !admitted; attempt++) {
+			admitted = cache.put("candidate", new byte[10], "text/plain", null) != null;
+		}
+
+		assertTrue(admitted, "candidate never admitted");
+		assertNull(cache.get("cold"));
+		for (int i = 0; i < 9; i++) {
+			assertNotNull(cache.get("hot" + i), "hot" + i);
+		}
+		assertEquals(100L, cache.getUsedBytes());
+	}
+
+	@Test
+	void expiredEntriesAreDropped() throws Exception {
+		HotObjectCache cache = cache(1024, 1);
+		long now = System.currentTimeMillis();
+
+		assertNull(cache.put("gone", new byte[10], "text/plain", now - 1));
+
+		assertNotNull(cache.put("soon", new byte[10], "text/plain", now + 50));
+		assertNotNull(cache.get("soon"));
+		Thread.sleep(100);
+		assertNull(cache.get("soon"));
+		assertEquals(0L, cache.getUsedBytes());
+	}
+
+	@Test
+	void byteAccountingFollowsPutReplaceAndInvalidate() {
+		HotObjectCache cache = cache(1024, 1);
+
+		cache.put("a", new byte[100], "text/plain", null);
+		cache.put("b", new byte[200], "text/plain", null);
+		assertEquals(300L, cache.getUsedBytes());
+
+		cache.put("a", new byte[50], "text/plain", null);
+		assertEquals(250L, cache.getUsedBytes());
+		assertEquals(50, cache.get("a").size(), "replaced entry size");
+
+		bus.publish(InvalidationBus.objectKey("b"));
+		assertEquals(50L, cache.getUsedBytes());
+
+		cache.invalidate("a");
+		cache.invalidate("a");
+		assertEquals(0L, cache.getUsedBytes());
+		assertEquals(0, cache.getEntryCount(), "entry count");
+	}
+}
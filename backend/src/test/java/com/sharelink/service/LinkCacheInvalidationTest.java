@@ -0,0 +1,199 @@
+package com.sharelink.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.sharelink.model.ShareLink;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+
+class LinkCacheInvalidationTest {
+
+	private static final long TTL_MILLIS = 60_000;
+	private static final long MAX_PROPAGATION_MILLIS = 2_000;
+
+	// Stands in for the DynamoDB table every replica reads from
+	private final Map<String, ShareLink> table = new ConcurrentHashMap<>();
+	private final AtomicInteger loads = new AtomicInteger();
+	private final Function<String, ShareLink> loader = shortCode -> {
+		loads.incrementAndGet();
+		return table.get(shortCode);
+	};
+
+	private final List<UdpInvalidationBus> buses = new ArrayList<>();
+
+	@AfterEach
+	void closeBuses() {
+		buses.forEach(UdpInvalidationBus::close);
+	}
+
+	private List<LinkCache> startCluster(int nodes, long batchMillis) throws Exception {
+		for (int i = 0; i < nodes; i++) {
+			buses.add(new UdpInvalidationBus(new InetSocketAddress("127.0.0.1", 0), List.of(), batchMillis));
+		}
+		for (UdpInvalidationBus bus : buses) {
+			List<InetSocketAddress> peers = new ArrayList<>();
+			for (UdpInvalidationBus other : buses) {
+				if (other != bus) peers.add(new InetSocketAddress("127.0.0.1", other.getLocalPort()));
+			}
+			bus.setPeers(peers);
+		}
+
+		List<LinkCache> caches = new ArrayList<>();
+		for (UdpInvalidationBus bus : buses) {
+			caches.add(new LinkCache(bus, TTL_MILLIS, 1000));
+		}
+		return caches;
+	}
+
+	private static ShareLink link(String shortCode) {
+		ShareLink link = new ShareLink();
+		link.setShortCode(shortCode);
+		link.setS3Keys(List.of("uploads/" + shortCode + "/file.txt"));
+		link.setOriginalFilenames(List.of("file.txt"));
+		link.setFileSizes(List.of(1L));
+		return link;
+	}
+
+	@Test
+	void deleteOnOneNodeBecomesVisibleOnAllNodes() throws Exception {
+		List<LinkCache> caches = startCluster(3, 20);
+		table.put("abc123", link("abc123"));
+
+		for (LinkCache cache : caches) {
+			assertNotNull(cache.get("abc123", loader));
+		}
+		int loadsBefore = loads.get();
+		for (LinkCache cache : caches) {
+			assertNotNull(cache.get("abc123", loader));
+		}
+		assertEquals(loadsBefore, loads.get(), "second reads should be served from cache");
+
+		// Node 0 deletes the link
+		table.remove("abc123");
+		caches.get(0).invalidate("abc123");
+		assertNull(caches.get(0).get("abc123", loader));
+
+		long deadline = System.currentTimeMillis() + MAX_PROPAGATION_MILLIS;
+		for (LinkCache cache : caches) {
+			while (cache.get("abc123", loader) != null) {
+				assertTrue(System.currentTimeMillis() < deadline, "delete not visible within bound");
+				Thread.sleep(10);
+			}
+		}
+	}
+
+	@Test
+	void reloadAfterInvalidationDoesNotReadAStaleReplica() throws Exception {
+		List<LinkCache> caches = startCluster(2, 20);
+		ShareLinkCodec codec = new ShareLinkCodec(false);
+		Map<String, AttributeValue> stale = codec.encode(link("abc123"));
+
+		// A replica that never sees the delete; only consistent reads reach the table
+		DynamoDbClient dynamoDb = mock(DynamoDbClient.class);
+		when(dynamoDb.getItem(any(GetItemRequest.class))).thenAnswer(invocation -> {
+			GetItemRequest request = invocation.getArgument(0);
+			ShareLink latest = table.get(request.key().get(ShareLinkCodec.SHORT_CODE).s());
+			if (!Boolean.TRUE.equals(request.consistentRead())) {
+				return GetItemResponse.builder().item(stale).build();
+			}
+			return GetItemResponse.builder().item(latest != null ? codec.encode(latest) : Map.of()).build();
+		});
+		LinkService node1 = new LinkService(dynamoDb, caches.get(1), false);
+
+		table.put("abc123", link("abc123"));
+		assertNotNull(node1.getLink("abc123"));
+
+		table.remove("abc123");
+		caches.get(0).invalidate("abc123");
+
+		long deadline = System.currentTimeMillis() + MAX_PROPAGATION_MILLIS;
+		while (node1.getLink("abc123") != null) {
+			assertTrue(System.currentTimeMillis() < deadline, "reload served the stale replica");
+			Thread.sleep(10);
+		}
+	}
+
+	@Test
+	void burstOfInvalidationsIsCoalescedAndDelivered() throws Exception {
+		// Flushed by hand below, so the whole burst lands in one batch
+		List<LinkCache> caches = startCluster(2, 60_000);
+		for (int i = 0; i < 500; i++) {
+			table.put("code" + i, link("code" + i));
+			caches.get(1).get("code" + i, loader);
+		}
+
+		for (int i = 0; i < 500; i++) {
+			table.remove("code" + i);
+			caches.get(0).invalidate("code" + i);
+			caches.get(0).invalidate("code" + i);
+		}
+		buses.get(0).flush();
+
+		// 1000 invalidations of 500 keys: each key sent once, packed into a few datagrams
+		assertEquals(500L, buses.get(0).getSentKeys());
+		assertTrue(buses.get(0).getSentDatagrams() <= 10, "sent " + buses.get(0).getSentDatagrams() + " datagrams");
+
+		long deadline = System.currentTimeMillis() + MAX_PROPAGATION_MILLIS;
+		for (int i = 0; i < 500; i++) {
+			while (caches.get(1).get("code" + i, loader) != null) {
+				assertTrue(System.currentTimeMillis() < deadline, "code" + i + " still cached");
+				Thread.sleep(10);
+			}
+		}
+	}
+
+	@Test
+	void datagramsFromUnknownSendersAreIgnored() throws Exception {
+		List<LinkCache> caches = startCluster(1, 20);
+		table.put("abc123", link("abc123"));
+		assertNotNull(caches.get(0).get("abc123", loader));
+		int loadsBefore = loads.get();
+
+		byte[] payload = "SLINV1\nintruder\nlink:abc123".getBytes(StandardCharsets.UTF_8);
+		try (DatagramSocket outsider = new DatagramSocket(new InetSocketAddress("127.0.0.1", 0))) {
+			outsider.send(new DatagramPacket(payload, payload.length,
+					new InetSocketAddress("127.0.0.1", buses.get(0).getLocalPort())));
+		}
+		Thread.sleep(200);
+
+		assertNotNull(caches.get(0).get("abc123", loader));
+		assertEquals(loadsBefore, loads.get(), "spoofed invalidation must not evict");
+	}
+
+	@Test
+	void missedInvalidationExpiresAfterTtl() throws Exception {
+		// A node that never hears about the delete
+		LinkCache isolated = new LinkCache(new LocalInvalidationBus(), 100, 1000);
+		table.put("abc123", link("abc123"));
+		assertNotNull(isolated.get("abc123", loader));
+
+		table.remove("abc123");
+		assertNotNull(isolated.get("abc123", loader));
+
+		Thread.sleep(150);
+		assertNull(isolated.get("abc123", loader));
+	}
+}
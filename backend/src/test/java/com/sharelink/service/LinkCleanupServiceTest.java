@@ -0,0 +1,114 @@
+package com.sharelink.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.sharelink.model.ShareLink;
+
+class LinkCleanupServiceTest {
+
+	private final S3Service s3Service = mock(S3Service.class);
+	private final LinkService linkService = mock(LinkService.class);
+	private final DownloadAnalyticsService downloadAnalytics = mock(DownloadAnalyticsService.class);
+	private final LinkCleanupService cleanup =
+			new LinkCleanupService(s3Service, linkService, new LocalInvalidationBus(), downloadAnalytics, 2);
+
+	@AfterEach
+	void shutdown() {
+		cleanup.shutdown();
+	}
+
+	private static ShareLink link(String shortCode) {
+		ShareLink link = new ShareLink();
+		link.setShortCode(shortCode);
+		link.setS3Keys(List.of("uploads/" + shortCode + "/file.txt"));
+		return link;
+	}
+
+	@Test
+	void partitionSplitsIntoBoundedBatches() {
+		List<Integer> items = new ArrayList<>();
+		for (int i = 0; i < 53; i++) items.add(i);
+
+		List<List<Integer>> batches = LinkCleanupService.partition(items, 25);
+		assertEquals(3, batches.size(), "batch count");
+		assertEquals(25, batches.get(0).size(), "first batch");
+		assertEquals(3, batches.get(2).size(), "last batch");
+		assertEquals(List.of(50, 51, 52), batches.get(2));
+
+		assertEquals(List.of(), LinkCleanupService.partition(List.of(), 25));
+	}
+
+	@Test
+	void reportsPerLinkResultsWhenBatchesFail() {
+		List<ShareLink> links = new ArrayList<>();
+		for (int i = 0; i < 30; i++) links.add(link("code" + i));
+
+		// One object fails to delete, so its link must keep its metadata
+		when(s3Service.deleteFiles(anyList()))
+				.thenReturn(Map.of("uploads/code3/file.txt", "AccessDenied"));
+		// The first metadata batch fails outright, the second leaves one item unprocessed
+		when(linkService.deleteLinks(anyList())).thenAnswer(invocation -> {
+			List<String> batch = invocation.getArgument(0);
+			if (batch.contains("code0")) throw new IllegalStateException("throttled");
+			return Set.of("code27");
+		});
+
+		Map<String, String> results = cleanup.deleteLinks(links);
+
+		assertEquals(30, results.size(), "result count");
+		assertEquals(LinkCleanupService.FAILED, results.get("code3"));
+		// code3 never reached DynamoDB, so the failed batch is the first 25 of the rest
+		for (int i = 0; i <= 25; i++) {
+			assertEquals(LinkCleanupService.FAILED, results.get("code" + i), "code" + i);
+		}
+		assertEquals(LinkCleanupService.DELETED, results.get("code26"));
+		assertEquals(LinkCleanupService.FAILED, results.get("code27"));
+		assertEquals(LinkCleanupService.DELETED, results.get("code28"));
+		assertEquals(LinkCleanupService.DELETED, results.get("code29"));
+		verify(downloadAnalytics, timeout(1000)).deleteStats(List.of("code26", "code28", "code29"));
+	}
+
+	@Test
+	void duplicateLinksAreDeletedOnce() {
+		when(s3Service.deleteFiles(anyList())).thenReturn(Map.of());
+		when(linkService.deleteLinks(anyList())).thenAnswer(invocation -> {
+			assertEquals(List.of("a", "b"), invocation.getArgument(0));
+			return Set.of();
+		});
+
+		Map<String, String> results = cleanup.deleteLinks(List.of(link("a"), link("b"), link("a")));
+
+		assertEquals(Map.of("a", LinkCleanupService.DELETED, "b", LinkCleanupService.DELETED), results);
+		verify(s3Service).deleteFiles(List.of(
+				"uploads/a/file.txt", PreviewService.previewKey("a"),
+				"uploads/b/file.txt", PreviewService.previewKey("b")));
+		verify(downloadAnalytics, timeout(1000)).deleteStats(List.of("a", "b"));
+	}
+
+	@Test
+	void thumbnailsAreDeletedEvenIfTheSnapshotHasNoPreview() {
+		when(s3Service.deleteFiles(anyList())).thenReturn(Map.of());
+		when(linkService.deleteLinks(anyList())).thenReturn(Set.of());
+
+		cleanup.deleteLinks(List.of(link("a"), link("b")));
+
+		verify(s3Service).deleteFiles(List.of(
+				"uploads/a/file.txt", PreviewService.previewKey("a"),
+				"uploads/b/file.txt", PreviewService.previewKey("b")));
+		// Again once the metadata is gone, for previews finished in the meantime
+		verify(s3Service, timeout(1000)).deleteFiles(List.of(PreviewService.previewKey("a"), PreviewService.previewKey("b")));
+	}
+}
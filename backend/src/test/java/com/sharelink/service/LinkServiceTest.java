@@ -0,0 +1,117 @@
+package com.sharelink.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.sharelink.model.ShareLink;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+class LinkServiceTest {
+
+	private static final String TABLE = "ShareLinks";
+
+	private final DynamoDbClient dynamoDb = mock(DynamoDbClient.class);
+	private final LinkService linkService = new LinkService(dynamoDb,
+			new LinkCache(new LocalInvalidationBus(), 30_000, 100), false);
+
+	private static WriteRequest delete(String shortCode) {
+		return WriteRequest.builder()
+				.deleteRequest(DeleteRequest.builder().key(ShareLinkCodec.key(shortCode)).build())
+				.build();
+	}
+
+	private static BatchWriteItemResponse unprocessed(String... shortCodes) {
+		List<WriteRequest> writes = Arrays.stream(shortCodes).map(LinkServiceTest::delete).toList();
+		return BatchWriteItemResponse.builder()
+				.unprocessedItems(Map.of(TABLE, writes))
+				.build();
+	}
+
+	private static ShareLink link(String shortCode) {
+		ShareLink link = new ShareLink();
+		link.setShortCode(shortCode);
+		link.setS3Keys(List.of("uploads/" + shortCode + "/file.txt"));
+		link.setOriginalFilenames(List.of("file.txt"));
+		link.setFileSizes(List.of(1L));
+		return link;
+	}
+
+	@Test
+	void deleteRetriesUnprocessedItems() {
+		when(dynamoDb.batchWriteItem(any(BatchWriteItemRequest.class)))
+				.thenReturn(unprocessed("b"))
+				.thenReturn(unprocessed());
+
+		Set<String> failed = linkService.deleteLinks(List.of("a", "b", "c"));
+
+		assertTrue(failed.isEmpty(), "all items eventually processed");
+		ArgumentCaptor<BatchWriteItemRequest> requests = ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+		verify(dynamoDb, times(2)).batchWriteItem(requests.capture());
+		assertEquals(3, requests.getAllValues().get(0).requestItems().get(TABLE).size(), "first attempt");
+		assertEquals(List.of(delete("b")), requests.getAllValues().get(1).requestItems().get(TABLE));
+	}
+
+	@Test
+	void deleteReportsItemsStillUnprocessedAfterRetries() {
+		when(dynamoDb.batchWriteItem(any(BatchWriteItemRequest.class))).thenReturn(unprocessed("b"));
+
+		Set<String> failed = linkService.deleteLinks(List.of("a", "b"));
+
+		assertEquals(Set.of("b"), failed);
+		verify(dynamoDb, times(5)).batchWriteItem(any(BatchWriteItemRequest.class));
+	}
+
+	@Test
+	void deleteSendsDuplicateCodesOnce() {
+		when(dynamoDb.batchWriteItem(any(BatchWriteItemRequest.class))).thenReturn(unprocessed());
+
+		linkService.deleteLinks(List.of("a", "a", "b"));
+
+		ArgumentCaptor<BatchWriteItemRequest> request = ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+		verify(dynamoDb).batchWriteItem(request.capture());
+		assertEquals(List.of(delete("a"), delete("b")), request.getValue().requestItems().get(TABLE));
+	}
+
+	@Test
+	void getLinksRetriesUnprocessedKeys() {
+		ShareLinkCodec codec = new ShareLinkCodec(false);
+		when(dynamoDb.batchGetItem(any(BatchGetItemRequest.class)))
+				.thenReturn(BatchGetItemResponse.builder()
+						.responses(Map.of(TABLE, List.of(codec.encode(link("a")))))
+						.unprocessedKeys(Map.of(TABLE, KeysAndAttributes.builder()
+								.keys(List.of(ShareLinkCodec.key("b")))
+								.build()))
+						.build())
+				.thenReturn(BatchGetItemResponse.builder()
+						.responses(Map.of(TABLE, List.of(codec.encode(link("b")))))
+						.build());
+
+		Map<String, ShareLink> links = linkService.getLinks(List.of("a", "b", "missing", "a"));
+
+		assertEquals(Set.of("a", "b"), links.keySet());
+		ArgumentCaptor<BatchGetItemRequest> requests = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+		verify(dynamoDb, times(2)).batchGetItem(requests.capture());
+		assertEquals(3, requests.getAllValues().get(0).requestItems().get(TABLE).keys().size(), "distinct keys");
+	}
+}
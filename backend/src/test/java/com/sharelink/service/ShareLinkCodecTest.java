@@ -0,0 +1,56 @@
+package com.sharelink.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.sharelink.model.ShareLink;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+class ShareLinkCodecTest {
+
+	private static ShareLink sampleLink() {
+		ShareLink link = new ShareLink();
+		link.setShortCode("abc123");
+		link.setS3Keys(List.of("uploads/abc123/résumé.pdf"));
+		link.setOriginalFilenames(List.of("résumé.pdf", "notes.txt"));
+		link.setFileSizes(List.of(300L, 5_000_000_000L));
+		link.setCreatedAt(1_700_000_000_000L);
+		link.setTotalSize(5_000_000_300L);
+		link.setUsername("alice");
+		return link;
+	}
+
+	@Test
+	void compactEncodingRoundTrips() {
+		ShareLinkCodec codec = new ShareLinkCodec(true);
+		Map<String, AttributeValue> item = codec.encode(sampleLink());
+
+		assertTrue(item.containsKey(ShareLinkCodec.FILES));
+		assertFalse(item.containsKey(ShareLinkCodec.FILE_SIZES));
+
+		ShareLink decoded = codec.decode(item);
+		assertEquals(List.of("résumé.pdf", "notes.txt"), decoded.getOriginalFilenames());
+		assertEquals(List.of(300L, 5_000_000_000L), decoded.getFileSizes());
+		assertEquals("alice", decoded.getUsername());
+	}
+
+	@Test
+	void listEncodingIsReadableByCompactCodec() {
+		Map<String, AttributeValue> item = new ShareLinkCodec(false).encode(sampleLink());
+		ShareLink decoded = new ShareLinkCodec(true).decode(item);
+
+		assertEquals(List.of(300L, 5_000_000_000L), decoded.getFileSizes());
+		assertEquals(List.of("uploads/abc123/résumé.pdf"), decoded.getS3Keys());
+		assertNull(decoded.getExpiresAt());
+		assertNull(decoded.getPassword());
+		assertEquals(0L, decoded.getDownloadCount());
+	}
+}
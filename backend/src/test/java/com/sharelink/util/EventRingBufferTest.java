@@ -0,0 +1,74 @@
+package com.sharelink.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+class EventRingBufferTest {
+
+	@Test
+	void rejectsOffersWhenFull() {
+		EventRingBuffer<Integer> buffer = new EventRingBuffer<>(8);
+		assertEquals(8, buffer.capacity(), "capacity");
+
+		for (int i = 0; i < 8; i++) {
+			assertTrue(buffer.offer(i), "offer " + i);
+		}
+		assertFalse(buffer.offer(8), "offer into a full buffer");
+
+		List<Integer> drained = new ArrayList<>();
+		assertEquals(2, buffer.drain(drained::add, 2), "drained");
+		assertEquals(List.of(0, 1), drained);
+		assertTrue(buffer.offer(8), "offer after draining");
+		assertTrue(buffer.offer(9), "offer after draining");
+		assertFalse(buffer.offer(10), "offer into a full buffer");
+	}
+
+	@Test
+	void deliversEveryItemExactlyOnceWithManyProducers() throws Exception {
+		int producers = 4;
+		int perProducer = 25_000;
+		EventRingBuffer<Integer> buffer = new EventRingBuffer<>(1024);
+		int[] seen = new int[producers * perProducer];
+
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			int base = p * perProducer;
+			Thread thread = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int i = 0; i < perProducer; i++) {
+					while (!buffer.offer(base + i)) {
+						Thread.onSpinWait();
+					}
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+
+		start.countDown();
+		int received = 0;
+		while (received < seen.length) {
+			received += buffer.drain(item -> seen[item]++, 256);
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(0, buffer.drain(item -> seen[item]++, Integer.MAX_VALUE), "nothing left over");
+		for (int i = 0; i < seen.length; i++) {
+			assertEquals(1, seen[i], "item " + i);
+		}
+	}
+}
@@ -29,6 +29,22 @@ export default function DownloadPage() {
     setInlineError('')
     setDownloading(true)
     try {
+      if (fileInfo.proxiedDownload) {
+        const res = await axios.post<Blob>(
+          `${import.meta.env.VITE_API_BASE}/${shortCode}/file`,
+          password ? { password } : {},
+          { responseType: 'blob' }
+        )
+        const url = URL.createObjectURL(res.data)
+        const link = document.createElement('a')
+        link.href = url
+        link.download = fileInfo.fileNames?.[0] || 'download'
+        link.click()
+        // Revoking immediately can cancel the download in some browsers
+        setTimeout(() => URL.revokeObjectURL(url), 60_000)
+        return
+      }
+
       const res = await axios.post<{ downloadUrl: string }>(
         `${import.meta.env.VITE_API_BASE}/${shortCode}/download`,
         password ? { password } : {},
@@ -67,6 +83,14 @@ export default function DownloadPage() {
       <div className="w-full max-w-md bg-[var(--bg-color)] text-[var(--text-color)] p-6 rounded-xl shadow-lg space-y-6 border border-[var(--color-mid)]">
         <h2 className="text-2xl font-semibold text-center">Download File</h2>
 
+        {fileInfo.previewUrl && !fileInfo.expired && (
+          <img
+            src={`${import.meta.env.VITE_API_BASE}/${shortCode}/preview`}
+            alt="File preview"
+            className="mx-auto max-h-64 rounded border border-[var(--color-mid)]"
+          />
+        )}
+
        <div className="flex gap-4 items-center bg-[var(--bg-color2)] border border-[var(--color-mid)] rounded-lg p-4">
           <div className="flex-1 space-y-2 text-sm">
             <div>